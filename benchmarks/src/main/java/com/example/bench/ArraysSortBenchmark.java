@@ -0,0 +1,48 @@
+package com.example.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Arrays#sort(int[])} baseline for {@link HeapSortBenchmark}, with the
+ * same sizes, input and run settings. It is a class of its own so the heap
+ * parameters, which it does not use, do not repeat it for every combination.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ArraysSortBenchmark {
+    @Param({"10", "1000", "100000", "10000000", "100000000"})
+    private int size;
+
+    private int[] input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = new Random(42).ints(size).toArray();
+    }
+
+    @Benchmark
+    public int[] arraysSortBaseline() {
+        // Copy first so the baseline allocates the same output array as the engine
+        int[] copy = input.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
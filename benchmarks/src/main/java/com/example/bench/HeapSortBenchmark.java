@@ -0,0 +1,61 @@
+package com.example.bench;
+
+import com.example.HeapBuildStrategy;
+import com.example.HeapSortEngine;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sort throughput of the headless heap sort engine; {@link ArraysSortBenchmark}
+ * holds the {@code Arrays.sort} baseline for the same sizes.
+ * Run with {@code -prof gc} to report the allocation rate.
+ *
+ * <p>The largest sizes (40 MB and 400 MB of ints) exceed the L2/L3 caches, so
+ * the arity parameter shows how shallower 4-ary and 8-ary heaps trade extra
+ * comparisons for fewer swaps and cache misses. The comparison and swap
+ * counts are deterministic for a given input; {@code --cli --stats} prints them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class HeapSortBenchmark {
+    @Param({"10", "1000", "100000", "10000000", "100000000"})
+    private int size;
+
+    @Param({"INSERTION", "FLOYD"})
+    private HeapBuildStrategy buildStrategy;
+
+    @Param({"2", "4", "8"})
+    private int arity;
+
+    private int[] input;
+    private HeapSortEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = new Random(42).ints(size).toArray();
+        engine = new HeapSortEngine();
+        engine.setBuildStrategy(buildStrategy);
+        engine.setArity(arity);
+    }
+
+    @Benchmark
+    public int[] heapSortEngine() {
+        return engine.sort(input);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.bench;
+
+import com.example.HeapBuildStrategy;
+import com.example.IntStorage;
+import com.example.IntStorageHeapSort;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * In-place heap sort on each {@link IntStorage} backend. The fork runs with a
+ * deliberately small Java heap: the direct and mapped backends keep the data
+ * outside it, while the heap backend needs the whole array inside it. Run
+ * with {@code -prof gc} to compare GC activity, and against
+ * {@code HeapSortBenchmark.heapSortEngine} for the traced engine on an int[].
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms256m", "-Xmx256m"})
+@State(Scope.Benchmark)
+public class IntStorageBenchmark {
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    @Param({"heap", "direct", "mapped"})
+    private String backend;
+
+    @Param({"FLOYD"})
+    private HeapBuildStrategy buildStrategy;
+
+    private Path mappedFile;
+    private IntStorage storage;
+    private IntStorageHeapSort sorter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mappedFile = Files.createTempFile("heapsort-storage", ".bin");
+        sorter = new IntStorageHeapSort();
+        sorter.setBuildStrategy(buildStrategy);
+    }
+
+    // Every measured sort starts from the same unsorted values
+    @Setup(Level.Iteration)
+    public void fill() throws IOException {
+        switch (backend) {
+            case "direct":
+                storage = IntStorage.direct();
+                break;
+            case "mapped":
+                Files.deleteIfExists(mappedFile);
+                storage = IntStorage.mapped(mappedFile);
+                break;
+            default:
+                storage = IntStorage.onHeap();
+                break;
+        }
+        new Random(42).ints(size).forEach(storage);
+    }
+
+    @TearDown(Level.Iteration)
+    public void release() throws IOException {
+        storage.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(mappedFile);
+    }
+
+    @Benchmark
+    public IntStorage storageSort() {
+        sorter.sort(storage);
+        return storage;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.bench;
+
+import com.example.HeapBuildStrategy;
+import com.example.HeapSortEngine;
+import com.example.SiftDownStrategy;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Classic against bottom-up (Wegener) sift-down in the sort phase. The
+ * bottom-up sift saves comparisons but not swaps, so with the engine's cheap
+ * int comparisons the time difference stays small. {@code --cli --compare-sift}
+ * prints the comparison counts of both variants for the same input.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class SiftDownBenchmark {
+    @Param({"100000", "10000000"})
+    private int size;
+
+    @Param({"CLASSIC", "BOTTOM_UP"})
+    private SiftDownStrategy siftDownStrategy;
+
+    @Param({"2", "4"})
+    private int arity;
+
+    private int[] input;
+    private HeapSortEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = new Random(42).ints(size).toArray();
+        engine = new HeapSortEngine();
+        engine.setBuildStrategy(HeapBuildStrategy.FLOYD);
+        engine.setArity(arity);
+        engine.setSiftDownStrategy(siftDownStrategy);
+    }
+
+    @Benchmark
+    public int[] sort() {
+        return engine.sort(input);
+    }
+}
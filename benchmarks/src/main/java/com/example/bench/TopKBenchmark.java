@@ -0,0 +1,60 @@
+package com.example.bench;
+
+import com.example.HeapBuildStrategy;
+import com.example.HeapSortEngine;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Top-k extraction against a full heap sort of the same input. With Floyd's
+ * O(n) build, extracting k roots costs O(n + k log n), so for small k the
+ * build dominates and the top-k run should approach the cost of heapify alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class TopKBenchmark {
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int k;
+
+    @Param({"FLOYD", "INSERTION"})
+    private HeapBuildStrategy buildStrategy;
+
+    private int[] input;
+    private HeapSortEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = new Random(42).ints(size).toArray();
+        engine = new HeapSortEngine();
+        engine.setBuildStrategy(buildStrategy);
+    }
+
+    @Benchmark
+    public int[] topK() {
+        return engine.selectTop(input, k);
+    }
+
+    @Benchmark
+    public int[] fullSort() {
+        return engine.sort(input);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bench;
+
+import com.example.HeapBuildStrategy;
+import com.example.HeapSortEngine;
+import com.example.OperationLog;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of recording the full step trace that the visualizer navigates.
+ * Sizes stop at 10^6 because a trace holds roughly 2 n log n operations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class TraceGenerationBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"INSERTION", "FLOYD"})
+    private HeapBuildStrategy buildStrategy;
+
+    private int[] input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = new Random(42).ints(size).toArray();
+    }
+
+    @Benchmark
+    public OperationLog generateTrace() {
+        OperationLog log = new OperationLog();
+        HeapSortEngine engine = new HeapSortEngine();
+        engine.setBuildStrategy(buildStrategy);
+        engine.setListener(log);
+        engine.sort(input);
+        return log;
+    }
+}
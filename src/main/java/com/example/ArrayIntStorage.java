@@ -0,0 +1,48 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/** {@link IntStorage} on a plain Java array, limited to the maximum array length. */
+final class ArrayIntStorage implements IntStorage {
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+    private int[] values;
+    private int size;
+
+    ArrayIntStorage(int[] values) {
+        this(values, values.length);
+    }
+
+    // Uses the first size values of the array, which stays shared
+    ArrayIntStorage(int[] values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public int get(long index) {
+        return values[(int) Objects.checkIndex(index, size)];
+    }
+
+    @Override
+    public void set(long index, int value) {
+        values[(int) Objects.checkIndex(index, size)] = value;
+    }
+
+    @Override
+    public void accept(int value) {
+        if (size == values.length) {
+            if (size == MAX_SIZE) {
+                throw new IllegalStateException("On-heap storage is full at " + MAX_SIZE + " values");
+            }
+            values = Arrays.copyOf(values, (int) Math.min(Math.max(16, (long) values.length * 2), MAX_SIZE));
+        }
+        values[size++] = value;
+    }
+}
@@ -0,0 +1,410 @@
+package com.example;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseButton;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Draws the heap tree straight onto a {@link Canvas} with immediate-mode calls
+ * instead of one Circle/Label/Line node per element.
+ *
+ * <p>The canvas is a zoomable, pannable viewport over the tree. Every level
+ * splits the tree width evenly among its slots, for any {@link HeapShape}
+ * arity; levels whose slots are closer
+ * than {@link #MIN_NODE_SPACING} pixels on screen collapse into a density strip
+ * that shades each pixel column by the values beneath it. Only the slots inside
+ * the visible region are ever drawn, so the cost of a frame depends on the
+ * canvas size rather than the heap size.
+ *
+ * <p>Callers report the slots a step wrote through {@link #markChanged}, so
+ * a render only repaints those nodes (or strip columns), the newly added
+ * slots and any highlighted ones, without looking at the rest of the heap;
+ * the visible region is repainted in full only when the tree shape, the
+ * phase colors, the canvas size or the viewport change, or after
+ * {@link #invalidate}.
+ */
+public class CanvasTreeRenderer {
+    private static final double MAX_NODE_RADIUS = 25;
+    private static final double MAX_LEVEL_HEIGHT = 80;
+    private static final double START_Y = 50;
+    private static final double MIN_TEXT_RADIUS = 8;
+    private static final double MIN_NODE_SPACING = 8;
+    private static final double MAX_BAND_HEIGHT = 16;
+    private static final int BAND_COLUMN_WIDTH = 2;
+    private static final int BAND_SAMPLES = 8;
+    private static final int BAND_SHADES = 32;
+    private static final double ZOOM_STEP = 1.25;
+    private static final int MAX_CHANGED_SLOTS = 1024;
+
+    private final Canvas canvas = new Canvas();
+    private final GraphicsContext gc = canvas.getGraphicsContext2D();
+    private final Font[] fonts = new Font[13];
+
+    // Heap currently shown
+    private HeapShape shape = new HeapShape(2);
+    private int[] heap = new int[0];
+    private int heapSize;
+    private Color nodeFill = Color.LIGHTBLUE;
+    private Color lineColor = Color.GRAY;
+    private int valueMin;
+    private int valueMax = 1;
+    private Color[] bandShades;
+
+    // Slots to repaint on the next render, beyond the newly added ones
+    private final int[] changedSlots = new int[MAX_CHANGED_SLOTS];
+    private int changedCount;
+
+    // What is currently on the canvas
+    private int renderedSize;
+    private int renderedLevels;
+    private Color renderedLineColor;
+    private double layoutWidth;
+    private double layoutHeight;
+    private boolean valid;
+
+    // Viewport: horizontal zoom around the tree width, vertical pan in screen pixels
+    private double zoom = 1;
+    private double viewX;
+    private double panY;
+    private double levelHeight;
+    private double dragX;
+    private double dragY;
+
+    public CanvasTreeRenderer() {
+        // Sized by the owning pane, so keep it out of the pane's layout calculations
+        canvas.setManaged(false);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        Tooltip.install(canvas, new Tooltip("Scroll to zoom, drag to pan, double-click to fit"));
+
+        canvas.setOnScroll(e -> zoomAt(e.getX(), e.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP));
+        canvas.setOnMousePressed(e -> {
+            dragX = e.getX();
+            dragY = e.getY();
+        });
+        canvas.setOnMouseDragged(e -> {
+            viewX -= (e.getX() - dragX) / zoom;
+            panY -= e.getY() - dragY;
+            dragX = e.getX();
+            dragY = e.getY();
+            repaint();
+        });
+        canvas.setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) {
+                resetView();
+                repaint();
+            }
+        });
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    // Force a full repaint on the next render
+    public void invalidate() {
+        valid = false;
+    }
+
+    // The value of a slot changed since the last render; too many changes fall back to a full repaint
+    public void markChanged(int index) {
+        if (!valid) {
+            return;
+        }
+        if (changedCount == changedSlots.length) {
+            valid = false;
+        } else {
+            changedSlots[changedCount++] = index;
+        }
+    }
+
+    public void resetView() {
+        zoom = 1;
+        viewX = 0;
+        panY = 0;
+        valid = false;
+    }
+
+    public void setShape(HeapShape shape) {
+        this.shape = shape;
+        valid = false;
+    }
+
+    // Value range used to shade the density strips
+    public void setValueRange(int min, int max) {
+        valueMin = min;
+        valueMax = Math.max(max, min + 1);
+        bandShades = null;
+        valid = false;
+    }
+
+    public void render(int[] heap, int heapSize, Color nodeFill, Color lineColor) {
+        this.heap = heap;
+        this.heapSize = heapSize;
+        if (this.nodeFill != nodeFill) {
+            this.nodeFill = nodeFill;
+            bandShades = null;
+            valid = false;
+        }
+        this.lineColor = lineColor;
+        int levels = shape.levelCount(heapSize);
+        if (!valid || levels != renderedLevels || heapSize < renderedSize || lineColor != renderedLineColor
+                || layoutWidth != canvas.getWidth() || layoutHeight != canvas.getHeight()) {
+            repaint();
+            return;
+        }
+        // Same tree shape, colors and viewport: repaint only the changed and the new slots
+        int previousSize = renderedSize;
+        renderedSize = heapSize;
+        for (int i = 0; i < changedCount; i++) {
+            if (changedSlots[i] < previousSize) {
+                redrawSlot(changedSlots[i], nodeFill);
+            }
+        }
+        changedCount = 0;
+        for (int i = previousSize; i < heapSize; i++) {
+            redrawSlot(i, nodeFill);
+        }
+    }
+
+    // Paint a single slot in a highlight color; the next render restores it
+    public void highlight(int index, Color fill) {
+        if (valid && index >= 0 && index < renderedSize) {
+            redrawSlot(index, fill);
+            markChanged(index);
+        }
+    }
+
+    public boolean isRendered(int index) {
+        return valid && index >= 0 && index < renderedSize;
+    }
+
+    // Screen position of a heap slot, e.g. as an animation target
+    public double screenX(int index) {
+        return toScreenX(worldX(index, shape.levelOf(index)));
+    }
+
+    public double screenY(int index) {
+        return levelY(shape.levelOf(index));
+    }
+
+    private void zoomAt(double x, double factor) {
+        double worldX = viewX + x / zoom;
+        // Zoom in until the deepest level's slots are half the canvas wide
+        double maxZoom = renderedLevels > 0 ? Math.max(1, shape.levelCapacity(renderedLevels - 1) / 2.0) : 1;
+        zoom = Math.max(1, Math.min(maxZoom, zoom * factor));
+        viewX = worldX - x / zoom;
+        repaint();
+    }
+
+    private void repaint() {
+        layoutWidth = canvas.getWidth();
+        layoutHeight = canvas.getHeight();
+        renderedSize = heapSize;
+        renderedLevels = shape.levelCount(heapSize);
+        renderedLineColor = lineColor;
+        changedCount = 0;
+        valid = true;
+
+        // Levels are squeezed to fit the canvas at zoom 1 and spread out as the view zooms in
+        double fitHeight = renderedLevels > 1
+            ? Math.min(MAX_LEVEL_HEIGHT, (layoutHeight - 2 * START_Y) / (renderedLevels - 1))
+            : MAX_LEVEL_HEIGHT;
+        levelHeight = Math.max(1, Math.min(MAX_LEVEL_HEIGHT, fitHeight * zoom));
+        viewX = Math.max(0, Math.min(viewX, layoutWidth - layoutWidth / zoom));
+        double treeHeight = START_Y + (renderedLevels - 1) * levelHeight + START_Y;
+        panY = Math.max(0, Math.min(panY, treeHeight - layoutHeight));
+
+        gc.clearRect(0, 0, layoutWidth, layoutHeight);
+        gc.setStroke(lineColor);
+        gc.setLineWidth(1);
+        for (int level = 1; level < renderedLevels; level++) {
+            if (isNodeLevel(level) && isLevelOnScreen(level - 1, level)) {
+                int first = visibleFirst(level);
+                int last = visibleLast(level);
+                for (int i = first; i <= last; i++) {
+                    strokeEdge(shape.parent(i), i);
+                }
+            }
+        }
+        for (int level = 0; level < renderedLevels; level++) {
+            if (!isLevelOnScreen(level, level)) {
+                continue;
+            }
+            int first = visibleFirst(level);
+            int last = visibleLast(level);
+            if (isNodeLevel(level)) {
+                for (int i = first; i <= last; i++) {
+                    drawNode(i, heap[i], nodeFill);
+                }
+            } else {
+                drawBand(level, 0, layoutWidth);
+            }
+        }
+    }
+
+    private void redrawSlot(int index, Color fill) {
+        int level = shape.levelOf(index);
+        double x = toScreenX(worldX(index, level));
+        if (!isLevelOnScreen(level, level) || x < -MAX_NODE_RADIUS || x > layoutWidth + MAX_NODE_RADIUS) {
+            return;
+        }
+        if (isNodeLevel(level)) {
+            drawNode(index, heap[index], fill);
+        } else {
+            double column = Math.floor(x / BAND_COLUMN_WIDTH) * BAND_COLUMN_WIDTH;
+            drawBand(level, column, column + BAND_COLUMN_WIDTH);
+            if (fill != nodeFill) {
+                // Mark highlighted slots inside a strip with a full-height tick
+                double bandHeight = bandHeight();
+                gc.setFill(fill);
+                gc.fillRect(column, levelY(level) - bandHeight / 2, BAND_COLUMN_WIDTH, bandHeight);
+            }
+        }
+    }
+
+    private void drawNode(int index, int value, Color fill) {
+        int level = shape.levelOf(index);
+        double x = toScreenX(worldX(index, level));
+        double y = levelY(level);
+        double r = nodeRadius(level);
+
+        // Clear the node box, then restore the edge stubs that crossed it
+        gc.clearRect(x - r - 1, y - r - 1, 2 * r + 2, 2 * r + 2);
+        gc.setStroke(renderedLineColor);
+        gc.setLineWidth(1);
+        if (index > 0) {
+            strokeEdge(shape.parent(index), index);
+        }
+        long firstChild = shape.firstChild(index);
+        if (firstChild < renderedSize && isNodeLevel(level + 1)) {
+            int childEnd = (int) Math.min(firstChild + shape.arity(), renderedSize);
+            for (int child = (int) firstChild; child < childEnd; child++) {
+                strokeEdge(index, child);
+            }
+        }
+
+        gc.setFill(fill);
+        gc.fillOval(x - r, y - r, 2 * r, 2 * r);
+        gc.setStroke(Color.BLACK);
+        gc.strokeOval(x - r, y - r, 2 * r, 2 * r);
+        if (r >= MIN_TEXT_RADIUS) {
+            gc.setFont(font(r));
+            gc.setFill(Color.BLACK);
+            gc.fillText(String.valueOf(value), x, y);
+        }
+    }
+
+    private void drawBand(int level, double fromX, double toX) {
+        // Shade each pixel column by the average of a few slots sampled beneath it
+        int levelStart = (int) shape.levelStart(level);
+        int levelCount = (int) Math.min(shape.levelCapacity(level), heapSize - levelStart);
+        double slotWidth = slotWidth(level);
+        double y = levelY(level);
+        double bandHeight = bandHeight();
+        Color[] shades = bandShades();
+
+        double levelFromX = Math.max(fromX, toScreenX(0));
+        double levelToX = Math.min(toX, toScreenX(levelCount * slotWidth));
+        gc.clearRect(fromX, y - bandHeight / 2, toX - fromX, bandHeight);
+        for (double x = levelFromX; x < levelToX; x += BAND_COLUMN_WIDTH) {
+            int firstSlot = (int) Math.max(0, Math.floor((viewX + x / zoom) / slotWidth));
+            int lastSlot = (int) Math.min(levelCount - 1, Math.floor((viewX + (x + BAND_COLUMN_WIDTH) / zoom) / slotWidth));
+            if (firstSlot > lastSlot) {
+                continue;
+            }
+            int stride = Math.max(1, (lastSlot - firstSlot + 1) / BAND_SAMPLES);
+            long sum = 0;
+            int samples = 0;
+            for (int slot = firstSlot; slot <= lastSlot && samples < BAND_SAMPLES; slot += stride) {
+                sum += heap[levelStart + slot];
+                samples++;
+            }
+            double t = ((double) sum / samples - valueMin) / (valueMax - valueMin);
+            int shade = (int) Math.max(0, Math.min(BAND_SHADES - 1, t * (BAND_SHADES - 1)));
+            gc.setFill(shades[shade]);
+            gc.fillRect(x, y - bandHeight / 2, BAND_COLUMN_WIDTH, bandHeight);
+        }
+    }
+
+    private Color[] bandShades() {
+        // Light (small values) to dark (large values) variants of the phase color, built once per color
+        if (bandShades == null) {
+            bandShades = new Color[BAND_SHADES];
+            Color dark = nodeFill.darker().darker();
+            for (int i = 0; i < BAND_SHADES; i++) {
+                bandShades[i] = nodeFill.interpolate(dark, (double) i / (BAND_SHADES - 1));
+            }
+        }
+        return bandShades;
+    }
+
+    private void strokeEdge(int parent, int child) {
+        int childLevel = shape.levelOf(child);
+        double parentX = toScreenX(worldX(parent, childLevel - 1));
+        double childX = toScreenX(worldX(child, childLevel));
+        gc.strokeLine(parentX, levelY(childLevel - 1) + nodeRadius(childLevel - 1),
+            childX, levelY(childLevel) - nodeRadius(childLevel));
+    }
+
+    private int visibleFirst(int level) {
+        int levelStart = (int) shape.levelStart(level);
+        double margin = MAX_NODE_RADIUS / zoom;
+        int slot = (int) Math.floor((viewX - margin) / slotWidth(level) - 0.5);
+        return levelStart + Math.max(0, slot);
+    }
+
+    private int visibleLast(int level) {
+        int levelStart = (int) shape.levelStart(level);
+        int levelCount = (int) Math.min(shape.levelCapacity(level), heapSize - levelStart);
+        double margin = MAX_NODE_RADIUS / zoom;
+        int slot = (int) Math.ceil((viewX + layoutWidth / zoom + margin) / slotWidth(level) - 0.5);
+        return levelStart + Math.min(levelCount - 1, slot);
+    }
+
+    private boolean isLevelOnScreen(int topLevel, int bottomLevel) {
+        return levelY(bottomLevel) >= -MAX_NODE_RADIUS && levelY(topLevel) <= layoutHeight + MAX_NODE_RADIUS;
+    }
+
+    private boolean isNodeLevel(int level) {
+        return slotWidth(level) * zoom >= MIN_NODE_SPACING;
+    }
+
+    private double slotWidth(int level) {
+        return layoutWidth / shape.levelCapacity(level);
+    }
+
+    // Center of a slot in tree coordinates, before zoom and pan
+    private double worldX(int index, int level) {
+        return (index - shape.levelStart(level) + 0.5) * slotWidth(level);
+    }
+
+    private double toScreenX(double worldX) {
+        return (worldX - viewX) * zoom;
+    }
+
+    private double levelY(int level) {
+        return START_Y + level * levelHeight - panY;
+    }
+
+    private double nodeRadius(int level) {
+        return Math.max(1, Math.min(MAX_NODE_RADIUS, Math.min(slotWidth(level) * zoom, levelHeight) * 0.45));
+    }
+
+    private double bandHeight() {
+        return Math.max(2, Math.min(MAX_BAND_HEIGHT, levelHeight * 0.6));
+    }
+
+    private Font font(double radius) {
+        int size = (int) Math.min(12, radius * 0.8);
+        if (fonts[size] == null) {
+            fonts[size] = Font.font(size);
+        }
+        return fonts[size];
+    }
+}
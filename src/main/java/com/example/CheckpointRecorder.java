@@ -0,0 +1,89 @@
+package com.example;
+
+/**
+ * Forwards engine events to another listener while tracking the heap size and
+ * sorted count a {@link TraceCursor} would show, and takes a snapshot of the
+ * engine's heap into {@link TraceCheckpoints} whenever the trace reaches the
+ * next checkpoint step. The engine updates its heap before emitting an event,
+ * so the heap seen here is the state after the recorded step.
+ */
+public class CheckpointRecorder implements HeapSortListener {
+    private final HeapSortEngine engine;
+    private final TraceCheckpoints checkpoints;
+    private final HeapSortListener delegate;
+    private int steps;
+    private int nextCheckpoint;
+    private int heapSize;
+    private int extractedCount;
+    private int sortedCount;
+
+    public CheckpointRecorder(HeapSortEngine engine, TraceCheckpoints checkpoints, HeapSortListener delegate) {
+        this.engine = engine;
+        this.checkpoints = checkpoints;
+        this.delegate = delegate;
+        this.nextCheckpoint = checkpoints.nextStepAfter(0);
+    }
+
+    @Override
+    public void onPhaseStarted(HeapSortPhase phase) {
+        delegate.onPhaseStarted(phase);
+    }
+
+    @Override
+    public void onInsert(int index, int value) {
+        delegate.onInsert(index, value);
+        heapSize = index + 1;
+        recorded();
+    }
+
+    @Override
+    public void onCompare(int index1, int index2) {
+        delegate.onCompare(index1, index2);
+        recorded();
+    }
+
+    @Override
+    public void onSwap(int index1, int index2) {
+        delegate.onSwap(index1, index2);
+        recorded();
+    }
+
+    @Override
+    public void onHeapBuilt() {
+        delegate.onHeapBuilt();
+        recorded();
+    }
+
+    @Override
+    public void onExtract(int rootIndex, int lastIndex) {
+        delegate.onExtract(rootIndex, lastIndex);
+        extractedCount++;
+        recorded();
+    }
+
+    @Override
+    public void onPlaced(int index, int value) {
+        delegate.onPlaced(index, value);
+        sortedCount = index + 1;
+        recorded();
+    }
+
+    private void recorded() {
+        if (++steps == nextCheckpoint) {
+            checkpoints.add(steps, engine.getHeap(), heapSize, sortedCount);
+            nextCheckpoint = checkpoints.nextStepAfter(steps);
+        }
+    }
+
+    public int heapSize() {
+        return heapSize;
+    }
+
+    public int extractedCount() {
+        return extractedCount;
+    }
+
+    public int sortedCount() {
+        return sortedCount;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example;
+
+import javafx.geometry.Orientation;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.Rectangle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Horizontally scrolling strip of data array cells. It shows a contiguous
+ * range of an int array but only creates cells for the slots that fit into
+ * its width; scrolling rebinds the same cells to other indices, so the strip
+ * costs the same for ten elements as for a million.
+ */
+public class DataArrayStrip extends Region {
+    static final double CELL_SIZE = 50; // Circle of radius 20 plus 5 px padding on each side
+    private static final int PREF_CELLS = 16;
+
+    /** One reusable cell; {@link #index} is the array index it currently shows. */
+    public static final class Cell extends StackPane {
+        final Circle circle = new Circle(20);
+        final Label label = new Label();
+        int index = -1;
+        int value;
+
+        private Cell() {
+            circle.setStroke(Color.BLACK);
+            label.setStyle("-fx-font-weight: bold;");
+            getChildren().addAll(circle, label);
+            setPrefSize(CELL_SIZE, CELL_SIZE);
+        }
+
+        public Circle circle() {
+            return circle;
+        }
+
+        public Label label() {
+            return label;
+        }
+    }
+
+    private final ScrollBar scrollBar = new ScrollBar();
+    private final List<Cell> cells = new ArrayList<>();
+    private int[] values = new int[0];
+    private int from;
+    private int to;
+    private int sortedBelow; // Indices below this are drawn as sorted
+
+    public DataArrayStrip() {
+        scrollBar.setOrientation(Orientation.HORIZONTAL);
+        scrollBar.setMin(0);
+        scrollBar.setUnitIncrement(CELL_SIZE);
+        scrollBar.valueProperty().addListener((obs, oldVal, newVal) -> refresh());
+        getChildren().add(scrollBar);
+        setOnScroll(e -> {
+            double delta = e.getDeltaX() != 0 ? e.getDeltaX() : e.getDeltaY();
+            scrollBar.setValue(clamp(scrollBar.getValue() - delta, scrollBar.getMax()));
+            e.consume();
+        });
+        Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(widthProperty());
+        clip.heightProperty().bind(heightProperty());
+        setClip(clip);
+    }
+
+    /**
+     * Shows {@code values[from]} to {@code values[to - 1]}. The array is read
+     * whenever cells are rebound, so it must not change until the next call.
+     */
+    public void setContent(int[] values, int from, int to, int sortedBelow) {
+        boolean resized = to - from != this.to - this.from;
+        this.values = values;
+        this.from = from;
+        this.to = to;
+        this.sortedBelow = sortedBelow;
+        if (resized) {
+            requestLayout();
+        }
+        refresh();
+    }
+
+    // The cell currently showing the given array index, or null if it is not on screen
+    public Cell cellAt(int index) {
+        for (Cell cell : cells) {
+            if (cell.index == index && cell.isVisible()) {
+                return cell;
+            }
+        }
+        return null;
+    }
+
+    // Scrolls the given array index into view and returns its cell, or null if it is not shown at all
+    public Cell reveal(int index) {
+        if (index < from || index >= to) {
+            return null;
+        }
+        double left = (index - from) * CELL_SIZE;
+        double value = scrollBar.getValue();
+        if (left < value) {
+            scrollBar.setValue(left);
+        } else if (left + CELL_SIZE > value + getWidth()) {
+            scrollBar.setValue(clamp(left + CELL_SIZE - getWidth(), scrollBar.getMax()));
+        }
+        return cellAt(index);
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return Math.min(to - from, PREF_CELLS) * CELL_SIZE;
+    }
+
+    @Override
+    protected double computeMinWidth(double height) {
+        return CELL_SIZE;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return CELL_SIZE + scrollBar.prefHeight(-1);
+    }
+
+    @Override
+    protected double computeMinHeight(double width) {
+        return computePrefHeight(width);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = getWidth();
+        double contentWidth = (double) (to - from) * CELL_SIZE;
+        double overflow = Math.max(0, contentWidth - width);
+        scrollBar.setMax(overflow);
+        scrollBar.setVisibleAmount(width * overflow / Math.max(contentWidth, 1));
+        scrollBar.setBlockIncrement(width);
+        scrollBar.setVisible(overflow > 0);
+        if (scrollBar.getValue() > overflow) {
+            scrollBar.setValue(overflow);
+        }
+        scrollBar.resizeRelocate(0, CELL_SIZE, width, scrollBar.prefHeight(-1));
+
+        // One cell per slot that can be at least partly visible
+        int needed = (int) Math.ceil(width / CELL_SIZE) + 1;
+        while (cells.size() < needed) {
+            Cell cell = new Cell();
+            cell.setVisible(false);
+            cells.add(cell);
+            getChildren().add(cell);
+        }
+        for (Cell cell : cells) {
+            cell.resize(CELL_SIZE, CELL_SIZE);
+        }
+        refresh();
+    }
+
+    // Rebinds the cells to the slots in view and undoes what animations did to them
+    private void refresh() {
+        int count = to - from;
+        double width = getWidth();
+        double offset = scrollBar.getValue();
+        int first = (int) (offset / CELL_SIZE);
+        // Short arrays are centred, long ones start at the scroll position
+        double x = count * CELL_SIZE <= width ? (width - count * CELL_SIZE) / 2 : first * CELL_SIZE - offset;
+        for (int i = 0; i < cells.size(); i++) {
+            Cell cell = cells.get(i);
+            int slot = first + i;
+            if (slot >= count) {
+                cell.index = -1;
+                cell.setVisible(false);
+                continue;
+            }
+            int index = from + slot;
+            int value = values[index];
+            if (cell.index < 0 || cell.value != value) {
+                cell.value = value;
+                cell.label.setText(String.valueOf(value));
+            }
+            cell.index = index;
+            Color fill = index < sortedBelow ? Color.GREEN : Color.LIGHTBLUE;
+            if (cell.circle.getFill() != fill) {
+                cell.circle.setFill(fill);
+            }
+            cell.setOpacity(1.0);
+            cell.circle.setVisible(true);
+            cell.label.setVisible(true);
+            cell.relocate(x + i * CELL_SIZE, 0);
+            cell.setVisible(true);
+        }
+    }
+
+    private static double clamp(double value, double max) {
+        return Math.max(0, Math.min(value, max));
+    }
+}
@@ -0,0 +1,396 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Heap sort for inputs larger than the Java heap. The run phase parses the
+ * text input in chunks, sorts each chunk in place with an
+ * {@link IntStorageHeapSort} and writes it as a binary run file; the merge
+ * phase then streams the runs through a k-way merge driven by a min-heap of
+ * the runs' current heads and writes the result as text, one value per line.
+ * A merge reads at most {@link #DEFAULT_MAX_FAN_IN} runs at once; with more
+ * runs, earlier passes merge groups of them into longer runs first. So at
+ * most one chunk, or one 64 KB buffer per merged run, is held in memory, and
+ * as many files are open. All file I/O goes through {@link FileChannel}s
+ * with direct buffers.
+ */
+public class ExternalHeapSort {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 22; // 16 MB of ints per run
+    public static final int DEFAULT_MAX_FAN_IN = 64; // Runs read at once by one merge
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MERGE_REPORT_INTERVAL = 1 << 12;
+
+    /** Progress callbacks, made on the sorting thread; throwing aborts the sort. */
+    public interface Observer {
+        default void runWritten(int runIndex, int length, long inputBytes) {
+        }
+
+        // A merge pass starts; passes before the last write longer runs instead of the output
+        default void mergePassStarted(int pass, int passes, int runCount) {
+        }
+
+        // The merge heap of run heads, root first; called every few thousand values merged in the pass
+        default void merging(int[] headValues, int size, long merged) {
+        }
+    }
+
+    private final IntStorageHeapSort sorter;
+    private final int chunkSize;
+    private final Path tempDirectory;
+    private int maxFanIn = DEFAULT_MAX_FAN_IN;
+    private Observer observer = new Observer() {
+    };
+
+    // Run files are created in a new directory below tempDirectory, which is removed afterwards
+    public ExternalHeapSort(IntStorageHeapSort sorter, int chunkSize, Path tempDirectory) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.sorter = sorter;
+        this.chunkSize = chunkSize;
+        this.tempDirectory = tempDirectory;
+    }
+
+    public void setObserver(Observer observer) {
+        this.observer = observer;
+    }
+
+    // Number of runs one merge reads at once, bounding open files and buffers
+    public void setMaxFanIn(int maxFanIn) {
+        if (maxFanIn < 2) {
+            throw new IllegalArgumentException("Merge fan-in must be at least 2: " + maxFanIn);
+        }
+        this.maxFanIn = maxFanIn;
+    }
+
+    public ExternalSortStats sort(Path input, Path output) throws IOException {
+        try (FileChannel in = FileChannel.open(input);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                 StandardOpenOption.TRUNCATE_EXISTING)) {
+            return sort(in, out);
+        }
+    }
+
+    public ExternalSortStats sort(ReadableByteChannel input, WritableByteChannel output) throws IOException {
+        ExternalSortStats stats = new ExternalSortStats();
+        Path runDirectory = Files.createTempDirectory(tempDirectory, "heapsort-runs");
+        List<Path> runs = new ArrayList<>();
+        try {
+            long start = System.nanoTime();
+            writeRuns(new CountingChannel(input, stats), runDirectory, runs, stats);
+            long merged = System.nanoTime();
+            stats.runNanos = merged - start;
+            merge(runs, runDirectory, output, stats);
+            stats.mergeNanos = System.nanoTime() - merged;
+            return stats;
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            Files.deleteIfExists(runDirectory);
+        }
+    }
+
+    private void writeRuns(ReadableByteChannel input, Path runDirectory, List<Path> runs,
+                           ExternalSortStats stats) throws IOException {
+        int[] chunk = new int[chunkSize];
+        int[] filled = new int[1];
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            new IntInputParser().parse(input, value -> {
+                chunk[filled[0]++] = value;
+                if (filled[0] == chunk.length) {
+                    try {
+                        writeRun(chunk, chunk.length, runDirectory, runs, buffer, stats);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    filled[0] = 0;
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        if (filled[0] > 0) {
+            writeRun(chunk, filled[0], runDirectory, runs, buffer, stats);
+        }
+    }
+
+    private void writeRun(int[] chunk, int length, Path runDirectory, List<Path> runs, ByteBuffer buffer,
+                          ExternalSortStats stats) throws IOException {
+        sorter.sort(new ArrayIntStorage(chunk, length));
+        Path run = runDirectory.resolve("run-" + runs.size() + ".bin");
+        runs.add(run);
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            RunWriter writer = new RunWriter(channel, buffer);
+            for (int i = 0; i < length; i++) {
+                writer.write(chunk[i]);
+            }
+            writer.flush();
+        }
+        stats.elements += length;
+        stats.runCount++;
+        stats.runBytes += (long) Integer.BYTES * length;
+        observer.runWritten(runs.size() - 1, length, stats.inputBytes);
+    }
+
+    private void merge(List<Path> runs, Path runDirectory, WritableByteChannel output, ExternalSortStats stats)
+            throws IOException {
+        int passes = 1;
+        for (long runCount = runs.size(); runCount > maxFanIn; runCount = (runCount + maxFanIn - 1) / maxFanIn) {
+            passes++;
+        }
+        stats.mergePasses = passes;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (int pass = 0; pass < passes - 1; pass++) {
+            // Merge groups of runs into longer runs; new runs join the list so they are removed on failure
+            int inputCount = runs.size();
+            observer.mergePassStarted(pass, passes, inputCount);
+            for (int from = 0; from < inputCount; from += maxFanIn) {
+                Path run = runDirectory.resolve("pass-" + (pass + 1) + "-run-" + (runs.size() - inputCount) + ".bin");
+                runs.add(run);
+                try (FileChannel channel = FileChannel.open(run, StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.WRITE)) {
+                    RunWriter writer = new RunWriter(channel, buffer);
+                    mergeRuns(runs.subList(from, Math.min(from + maxFanIn, inputCount)), writer);
+                    writer.flush();
+                }
+            }
+            List<Path> merged = runs.subList(0, inputCount);
+            for (Path run : merged) {
+                Files.delete(run);
+            }
+            merged.clear();
+        }
+        observer.mergePassStarted(passes - 1, passes, runs.size());
+        TextWriter writer = new TextWriter(output);
+        mergeRuns(runs, writer);
+        writer.flush();
+        stats.outputBytes = writer.bytesWritten;
+    }
+
+    private void mergeRuns(List<Path> runs, ValueWriter writer) throws IOException {
+        RunReader[] readers = new RunReader[runs.size()];
+        try {
+            // Min-heap of run heads: values and the run each one came from, kept in parallel arrays
+            int[] heads = new int[runs.size()];
+            int[] sources = new int[runs.size()];
+            int size = 0;
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new RunReader(runs.get(i));
+                if (readers[i].next()) {
+                    heads[size] = readers[i].value;
+                    sources[size] = i;
+                    siftUp(heads, sources, size++);
+                }
+            }
+            long merged = 0;
+            while (size > 0) {
+                writer.write(heads[0]);
+                RunReader reader = readers[sources[0]];
+                if (reader.next()) {
+                    heads[0] = reader.value;
+                } else {
+                    size--;
+                    heads[0] = heads[size];
+                    sources[0] = sources[size];
+                }
+                siftDown(heads, sources, size);
+                if ((++merged & (MERGE_REPORT_INTERVAL - 1)) == 0) {
+                    observer.merging(heads, size, merged);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    private static void siftUp(int[] heads, int[] sources, int index) {
+        int value = heads[index];
+        int source = sources[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heads[parent] <= value) {
+                break;
+            }
+            heads[index] = heads[parent];
+            sources[index] = sources[parent];
+            index = parent;
+        }
+        heads[index] = value;
+        sources[index] = source;
+    }
+
+    private static void siftDown(int[] heads, int[] sources, int size) {
+        if (size == 0) {
+            return;
+        }
+        int value = heads[0];
+        int source = sources[0];
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heads[child + 1] < heads[child]) {
+                child++;
+            }
+            if (value <= heads[child]) {
+                break;
+            }
+            heads[index] = heads[child];
+            sources[index] = sources[child];
+            index = child;
+        }
+        heads[index] = value;
+        sources[index] = source;
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Sequential reader of one binary run file
+    private static final class RunReader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int value;
+
+        RunReader(Path run) throws IOException {
+            channel = FileChannel.open(run);
+            buffer.limit(0);
+        }
+
+        boolean next() throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                buffer.compact();
+                while (buffer.position() < Integer.BYTES) {
+                    if (channel.read(buffer) < 0) {
+                        buffer.flip();
+                        return false;
+                    }
+                }
+                buffer.flip();
+            }
+            value = buffer.getInt();
+            return true;
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // Destination of merged values
+    private interface ValueWriter {
+        void write(int value) throws IOException;
+    }
+
+    // Binary run file writer on a caller-supplied little-endian buffer
+    private static final class RunWriter implements ValueWriter {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+
+        RunWriter(WritableByteChannel channel, ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+            buffer.clear();
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            if (!buffer.hasRemaining()) {
+                drain(buffer, channel);
+            }
+            buffer.putInt(value);
+        }
+
+        void flush() throws IOException {
+            drain(buffer, channel);
+        }
+    }
+
+    // One value per line, formatted straight into a direct buffer
+    private static final class TextWriter implements ValueWriter {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final byte[] digits = new byte[12];
+        long bytesWritten;
+
+        TextWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            int position = digits.length;
+            digits[--position] = '\n';
+            long remaining = Math.abs((long) value);
+            do {
+                digits[--position] = (byte) ('0' + remaining % 10);
+                remaining /= 10;
+            } while (remaining != 0);
+            if (value < 0) {
+                digits[--position] = '-';
+            }
+            int length = digits.length - position;
+            if (buffer.remaining() < length) {
+                flush();
+            }
+            buffer.put(digits, position, length);
+            bytesWritten += length;
+        }
+
+        void flush() throws IOException {
+            drain(buffer, channel);
+        }
+    }
+
+    // Counts the bytes read from the input for the throughput figures
+    private static final class CountingChannel implements ReadableByteChannel {
+        private final ReadableByteChannel channel;
+        private final ExternalSortStats stats;
+
+        CountingChannel(ReadableByteChannel channel, ExternalSortStats stats) {
+            this.channel = channel;
+            this.stats = stats;
+        }
+
+        @Override
+        public int read(ByteBuffer target) throws IOException {
+            int read = channel.read(target);
+            if (read > 0) {
+                stats.inputBytes += read;
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example;
+
+/**
+ * Sizes and timings of one {@link ExternalHeapSort} run, with the throughput
+ * of both phases in MB/s (10^6 bytes per second).
+ */
+public class ExternalSortStats {
+    long elements;
+    int runCount;
+    int mergePasses;
+    long inputBytes;   // text read in the run phase
+    long runBytes;     // binary run data, written in the run phase and read back by every merge pass
+    long outputBytes;  // text written by the merge
+    long runNanos;
+    long mergeNanos;
+
+    public long getElements() {
+        return elements;
+    }
+
+    public int getRunCount() {
+        return runCount;
+    }
+
+    // Passes over the run data; more than one when there are more runs than the merge fan-in
+    public int getMergePasses() {
+        return mergePasses;
+    }
+
+    public long getInputBytes() {
+        return inputBytes;
+    }
+
+    public long getRunBytes() {
+        return runBytes;
+    }
+
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    public long getRunNanos() {
+        return runNanos;
+    }
+
+    public long getMergeNanos() {
+        return mergeNanos;
+    }
+
+    // Input parsed, sorted and written as runs, per second of the run phase
+    public double getRunPhaseInputMBps() {
+        return megabytesPerSecond(inputBytes, runNanos);
+    }
+
+    public double getRunWriteMBps() {
+        return megabytesPerSecond(runBytes, runNanos);
+    }
+
+    // Run data merged per second of the merge phase, over all passes
+    public double getMergeMBps() {
+        return megabytesPerSecond(runBytes * mergePasses, mergeNanos);
+    }
+
+    public double getOutputMBps() {
+        return megabytesPerSecond(outputBytes, mergeNanos);
+    }
+
+    static double megabytesPerSecond(long bytes, long nanos) {
+        return nanos == 0 ? 0 : bytes / 1e6 / (nanos / 1e9);
+    }
+
+    // Multi-line summary for the CLI and the status area
+    public String toTable() {
+        return String.format("elements: %d in %d runs, %d merge pass%s%n"
+                + "run phase:   %8.1f MB text in  %8.1f ms  (%.1f MB/s), %.1f MB runs out (%.1f MB/s)%n"
+                + "merge phase: %8.1f MB runs in  %8.1f ms  (%.1f MB/s), %.1f MB text out (%.1f MB/s)",
+            elements, runCount, mergePasses, mergePasses == 1 ? "" : "es",
+            inputBytes / 1e6, runNanos / 1e6, getRunPhaseInputMBps(), runBytes / 1e6, getRunWriteMBps(),
+            runBytes * mergePasses / 1e6, mergeNanos / 1e6, getMergeMBps(), outputBytes / 1e6, getOutputMBps());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d elements, %d runs, run phase %.1f MB/s, merge %.1f MB/s",
+            elements, runCount, getRunPhaseInputMBps(), getMergeMBps());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import javafx.concurrent.Task;
+
+/**
+ * Runs an {@link ExternalHeapSort} on a worker thread. Progress follows the
+ * input bytes read in the run phase and the values merged in the merge phase,
+ * split evenly between the merge passes; the message describes the current
+ * phase. During the merge the heap of run
+ * heads is published for the live view, at most every 50 ms and latest only.
+ */
+public class ExternalSortTask extends Task<ExternalSortStats> {
+    private static final long PUBLISH_INTERVAL_NANOS = 50_000_000L;
+
+    private final ExternalHeapSort sorter;
+    private final Path input;
+    private final Path output;
+    private final LatestValuePublisher<HeapSnapshot> publisher;
+    private long startNanos;
+    private long lastPublish;
+
+    public ExternalSortTask(ExternalHeapSort sorter, Path input, Path output,
+                            Consumer<HeapSnapshot> mergeHeapConsumer) {
+        this.sorter = sorter;
+        this.input = input;
+        this.output = output;
+        this.publisher = new LatestValuePublisher<>(snapshot -> {
+            if (!isCancelled()) {
+                mergeHeapConsumer.accept(snapshot);
+            }
+        });
+    }
+
+    @Override
+    protected ExternalSortStats call() throws IOException {
+        long inputSize = Math.max(1, Files.size(input));
+        long[] elements = new long[1];
+        int[] mergePass = {0, 1}; // Current pass and number of passes
+        startNanos = System.nanoTime();
+        lastPublish = startNanos;
+        // Each phase takes half of the progress bar
+        sorter.setObserver(new ExternalHeapSort.Observer() {
+            @Override
+            public void runWritten(int runIndex, int length, long inputBytes) {
+                checkCancelled();
+                elements[0] += length;
+                updateMessage(String.format("Writing runs: %d written, %.1f MB read",
+                    runIndex + 1, inputBytes / 1e6));
+                updateProgress(Math.min(inputBytes, inputSize), 2 * inputSize);
+            }
+
+            @Override
+            public void mergePassStarted(int pass, int passes, int runCount) {
+                checkCancelled();
+                mergePass[0] = pass;
+                mergePass[1] = passes;
+            }
+
+            @Override
+            public void merging(int[] headValues, int size, long merged) {
+                checkCancelled();
+                long now = System.nanoTime();
+                if (now - lastPublish < PUBLISH_INTERVAL_NANOS) {
+                    return;
+                }
+                lastPublish = now;
+                updateMessage(mergePass[1] == 1
+                    ? String.format("Merging: %d of %d values", merged, elements[0])
+                    : String.format("Merge pass %d of %d: %d of %d values", mergePass[0] + 1, mergePass[1], merged,
+                        elements[0]));
+                // In double, since bytes times values overflows a long for inputs of about 10 GB
+                double passFraction = (double) merged / Math.max(1, elements[0]);
+                updateProgress(inputSize + (long) ((mergePass[0] + passFraction) / mergePass[1] * inputSize),
+                    2 * inputSize);
+                int[] heap = new int[size];
+                System.arraycopy(headValues, 0, heap, 0, size);
+                publisher.publish(new HeapSnapshot(heap, size, merged, now - startNanos));
+            }
+        });
+        try {
+            ExternalSortStats stats = sorter.sort(input, output);
+            updateProgress(1, 1);
+            updateMessage(stats.toString());
+            return stats;
+        } catch (CancellationException ex) {
+            return null;
+        } finally {
+            sorter.setObserver(new ExternalHeapSort.Observer() {
+            });
+        }
+    }
+
+    private void checkCancelled() {
+        if (isCancelled()) {
+            // Unwinds the sort; its finally block removes the run files
+            throw new CancellationException();
+        }
+    }
+}
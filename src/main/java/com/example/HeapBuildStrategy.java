@@ -0,0 +1,19 @@
+package com.example;
+
+public enum HeapBuildStrategy {
+    // Insert elements one at a time and sift each one up: O(n log n)
+    INSERTION("Insertion (sift-up)"),
+    // Floyd's bottom-up heapify, sifting down every internal node: O(n)
+    FLOYD("Floyd (bottom-up)");
+
+    private final String displayName;
+
+    HeapBuildStrategy(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
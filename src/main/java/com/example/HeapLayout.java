@@ -0,0 +1,76 @@
+package com.example;
+
+/**
+ * Table of node centres of the scene-graph heap tree, one entry per heap slot
+ * in primitive arrays. Positions depend only on the heap shape, the number of
+ * levels shown and the pane width, so the table is rebuilt only when one of
+ * those changes and drawing or animating a step just looks positions up.
+ */
+final class HeapLayout {
+    static final double NODE_RADIUS = 25;
+    static final double LEVEL_HEIGHT = 80;
+    static final double TOP_Y = 50;
+
+    private HeapShape shape;
+    private int levels = -1;
+    private double width = -1;
+    private int size;
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private int version; // Incremented on every rebuild
+
+    /**
+     * Makes the table cover the first {@code slots} heap slots, limited to the
+     * given number of levels, laid out across a pane of the given width.
+     *
+     * @return true if the positions were recomputed
+     */
+    boolean update(HeapShape shape, int levels, double width, int slots) {
+        int count = levels == 0 ? 0 : (int) Math.min(slots, shape.levelStart(levels));
+        if (shape == this.shape && levels == this.levels && width == this.width && count <= size) {
+            return false;
+        }
+        this.shape = shape;
+        this.levels = levels;
+        this.width = width;
+        size = count;
+        if (xs.length < count) {
+            xs = new double[count];
+            ys = new double[count];
+        }
+        if (count > 0) {
+            // Every level uses the spacing of the bottom level, centred in the pane
+            double spacing = width / (shape.levelCapacity(levels - 1) + 1);
+            int index = 0;
+            for (int level = 0; index < count; level++) {
+                long capacity = shape.levelCapacity(level);
+                double startX = (width - capacity * spacing) / 2 + spacing / 2;
+                double y = TOP_Y + level * LEVEL_HEIGHT;
+                int levelStart = index;
+                long levelEnd = Math.min(count, shape.levelStart(level + 1));
+                for (; index < levelEnd; index++) {
+                    xs[index] = startX + (index - levelStart) * spacing;
+                    ys[index] = y;
+                }
+            }
+        }
+        version++;
+        return true;
+    }
+
+    int version() {
+        return version;
+    }
+
+    int size() {
+        return size;
+    }
+
+    double x(int index) {
+        return xs[index];
+    }
+
+    double y(int index) {
+        return ys[index];
+    }
+}
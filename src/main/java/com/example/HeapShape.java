@@ -0,0 +1,76 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * Index arithmetic of a d-ary heap stored level by level in an array: the
+ * children of node i are d*i+1 to d*i+d, its parent is (i-1)/d, and level L
+ * holds d^L slots starting at index (d^L - 1) / (d - 1).
+ */
+public final class HeapShape {
+    private final int arity;
+    private final long[] levelStarts; // first index of every level that starts within int range, plus one more
+
+    public HeapShape(int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2: " + arity);
+        }
+        this.arity = arity;
+        long[] starts = new long[33];
+        int count = 0;
+        long start = 0;
+        long capacity = 1;
+        while (true) {
+            starts[count++] = start;
+            if (start > Integer.MAX_VALUE) {
+                break;
+            }
+            start += capacity;
+            capacity *= arity;
+        }
+        this.levelStarts = Arrays.copyOf(starts, count);
+    }
+
+    public int arity() {
+        return arity;
+    }
+
+    public int parent(int index) {
+        return (index - 1) / arity;
+    }
+
+    // Index of the first child; may exceed int range for the deepest nodes
+    public long firstChild(int index) {
+        return (long) arity * index + 1;
+    }
+
+    public int levelOf(int index) {
+        if (arity == 2) {
+            return 31 - Integer.numberOfLeadingZeros(index + 1);
+        }
+        int level = 1;
+        while (levelStarts[level] <= index) {
+            level++;
+        }
+        return level - 1;
+    }
+
+    public long levelStart(int level) {
+        return levelStarts[level];
+    }
+
+    // Number of slots of a full level
+    public long levelCapacity(int level) {
+        return levelStarts[level + 1] - levelStarts[level];
+    }
+
+    // Position of the node within its level, counted from the left
+    public int positionInLevel(int index) {
+        return (int) (index - levelStarts[levelOf(index)]);
+    }
+
+    // Number of levels of a heap holding the given number of elements
+    public int levelCount(int size) {
+        return size == 0 ? 0 : levelOf(size - 1) + 1;
+    }
+}
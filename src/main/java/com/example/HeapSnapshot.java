@@ -0,0 +1,19 @@
+package com.example;
+
+/**
+ * Copy of a heap array at one point of a long-running operation, root first,
+ * handed from a worker thread to a live view.
+ */
+public final class HeapSnapshot {
+    public final int[] heap;
+    public final int size;
+    public final long count;        // values processed so far
+    public final long elapsedNanos; // time since the operation started
+
+    public HeapSnapshot(int[] heap, int size, long count, long elapsedNanos) {
+        this.heap = heap;
+        this.size = size;
+        this.count = count;
+        this.elapsedNanos = elapsedNanos;
+    }
+}
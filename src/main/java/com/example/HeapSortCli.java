@@ -0,0 +1,458 @@
+package com.example;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Command-line batch mode: sorts integers read from a file or stdin with the
+ * headless {@link HeapSortEngine}, writes the sorted values, and optionally
+ * records a trace file and prints statistics. It never touches the JavaFX
+ * toolkit, so it starts as fast as the JVM itself.
+ */
+public class HeapSortCli {
+    static final String CLI_FLAG = "--cli";
+    private static final long DEFAULT_CHECKPOINT_BUDGET_MB = 64;
+    private static final int DEFAULT_CHUNK_MB = 16;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+        "Usage: heap-sort-visualizer --cli [options]",
+        "  --input <file>               read integers separated by whitespace or commas",
+        "                               from a file (default: stdin)",
+        "  --output <file>              write sorted integers to a file (default: stdout)",
+        "  --strategy insertion|floyd   heap build strategy (default: insertion)",
+        "  --arity 2|4|8                children per heap node (default: 2)",
+        "  --sift classic|bottom-up     sort phase sift-down: compare every child with the",
+        "                               sifted node, or Wegener's bottom-up sift with about",
+        "                               half the comparisons (default: classic)",
+        "  --compare-sift               also sort with both sift-down variants and print",
+        "                               their sort phase counters and timing to stderr",
+        "  --top-k <k>                  only extract the k largest values and write",
+        "                               those, in ascending order (default: all)",
+        "  --stream                     with --top-k: keep only k values in memory while",
+        "                               reading, for input of any length",
+        "  --external                   sort input larger than memory through sorted run",
+        "                               files and a k-way merge",
+        "  --chunk-mb <mb>              with --external: run size in MB of ints (default: 16)",
+        "  --temp-dir <dir>             with --external: directory for run files",
+        "                               (default: the system temp directory)",
+        "  --storage heap|direct|mapped where the values are sorted: a Java array, off-heap",
+        "                               memory, or a memory-mapped file (default: the",
+        "                               traced engine on a Java array)",
+        "  --storage-file <file>        with --storage mapped: the mapped file, left holding",
+        "                               the sorted values as little-endian ints",
+        "  --trace <file>               record the sort as a trace file for the visualizer",
+        "  --checkpoint-budget-mb <mb>  snapshot memory for the trace file (default: 64)",
+        "  --stats                      print per-phase counters and timing to stderr",
+        "  --help                       show this help");
+
+    private Path inputPath;
+    private Path outputPath;
+    private Path tracePath;
+    private HeapBuildStrategy buildStrategy = HeapBuildStrategy.INSERTION;
+    private int arity = 2;
+    private SiftDownStrategy siftDownStrategy = SiftDownStrategy.CLASSIC;
+    private boolean compareSift;
+    private int topK;
+    private boolean stream;
+    private boolean external;
+    private int chunkSize = DEFAULT_CHUNK_MB * (1024 * 1024 / Integer.BYTES);
+    private Path tempDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+    private String storage;
+    private Path storagePath;
+    private long checkpointBudgetBytes = DEFAULT_CHECKPOINT_BUDGET_MB * 1024 * 1024;
+    private boolean printStats;
+
+    // Whether the arguments ask for batch mode instead of the visualizer
+    public static boolean isCliInvocation(String[] args) {
+        return args.length > 0 && CLI_FLAG.equals(args[0]);
+    }
+
+    /**
+     * Runs batch mode and returns the process exit code: 0 on success, 1 on
+     * an input or I/O error, 2 on invalid arguments.
+     */
+    public static int run(String[] args, InputStream in, PrintStream out, PrintStream err) {
+        HeapSortCli cli = new HeapSortCli();
+        try {
+            if (!cli.parseArguments(args, out)) {
+                return 0;
+            }
+        } catch (IllegalArgumentException ex) {
+            err.println(ex.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        try {
+            cli.sort(in, out, err);
+            return 0;
+        } catch (IOException ex) {
+            err.println("Error: " + ex.getMessage());
+            return 1;
+        }
+    }
+
+    // Returns false when only the help text was requested
+    private boolean parseArguments(String[] args, PrintStream out) {
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--input":
+                    inputPath = Paths.get(value(args, ++i));
+                    break;
+                case "--output":
+                    outputPath = Paths.get(value(args, ++i));
+                    break;
+                case "--trace":
+                    tracePath = Paths.get(value(args, ++i));
+                    break;
+                case "--strategy":
+                    buildStrategy = parseStrategy(value(args, ++i));
+                    break;
+                case "--arity":
+                    arity = parseArity(value(args, ++i));
+                    break;
+                case "--sift":
+                    siftDownStrategy = parseSiftDownStrategy(value(args, ++i));
+                    break;
+                case "--compare-sift":
+                    compareSift = true;
+                    break;
+                case "--top-k":
+                    topK = parseTopK(value(args, ++i));
+                    break;
+                case "--stream":
+                    stream = true;
+                    break;
+                case "--external":
+                    external = true;
+                    break;
+                case "--chunk-mb":
+                    chunkSize = parseChunkSize(value(args, ++i));
+                    break;
+                case "--temp-dir":
+                    tempDirectory = Paths.get(value(args, ++i));
+                    break;
+                case "--storage":
+                    storage = parseStorage(value(args, ++i));
+                    break;
+                case "--storage-file":
+                    storagePath = Paths.get(value(args, ++i));
+                    break;
+                case "--checkpoint-budget-mb":
+                    try {
+                        checkpointBudgetBytes = Long.parseLong(value(args, ++i)) * 1024 * 1024;
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("Invalid checkpoint budget: " + args[i]);
+                    }
+                    break;
+                case "--stats":
+                    printStats = true;
+                    break;
+                case "--help":
+                    out.println(USAGE);
+                    return false;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (stream && (topK == 0 || tracePath != null)) {
+            throw new IllegalArgumentException("--stream needs --top-k and cannot record a trace");
+        }
+        if (external && (topK > 0 || stream || tracePath != null)) {
+            throw new IllegalArgumentException("--external cannot be combined with --top-k, --stream or --trace");
+        }
+        if (storage != null && (topK > 0 || stream || external || tracePath != null)) {
+            throw new IllegalArgumentException(
+                "--storage cannot be combined with --top-k, --stream, --external or --trace");
+        }
+        if (compareSift && (stream || external || storage != null)) {
+            throw new IllegalArgumentException("--compare-sift cannot be combined with --stream, --external or --storage");
+        }
+        if ("mapped".equals(storage) != (storagePath != null)) {
+            throw new IllegalArgumentException("--storage mapped and --storage-file go together");
+        }
+        return true;
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static HeapBuildStrategy parseStrategy(String name) {
+        switch (name.toLowerCase()) {
+            case "insertion":
+                return HeapBuildStrategy.INSERTION;
+            case "floyd":
+                return HeapBuildStrategy.FLOYD;
+            default:
+                throw new IllegalArgumentException("Unknown heap build strategy: " + name);
+        }
+    }
+
+    private static SiftDownStrategy parseSiftDownStrategy(String name) {
+        switch (name.toLowerCase()) {
+            case "classic":
+                return SiftDownStrategy.CLASSIC;
+            case "bottom-up":
+                return SiftDownStrategy.BOTTOM_UP;
+            default:
+                throw new IllegalArgumentException("Unknown sift-down strategy: " + name);
+        }
+    }
+
+    private static int parseArity(String value) {
+        switch (value) {
+            case "2":
+            case "4":
+            case "8":
+                return Integer.parseInt(value);
+            default:
+                throw new IllegalArgumentException("Heap arity must be 2, 4 or 8: " + value);
+        }
+    }
+
+    private static int parseTopK(String value) {
+        try {
+            int k = Integer.parseInt(value);
+            if (k > 0) {
+                return k;
+            }
+        } catch (NumberFormatException ex) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Top-k count must be a positive integer: " + value);
+    }
+
+    private static String parseStorage(String name) {
+        switch (name) {
+            case "heap":
+            case "direct":
+            case "mapped":
+                return name;
+            default:
+                throw new IllegalArgumentException("Storage must be heap, direct or mapped: " + name);
+        }
+    }
+
+    private static int parseChunkSize(String value) {
+        try {
+            int megabytes = Integer.parseInt(value);
+            if (megabytes > 0 && megabytes <= 1024) {
+                return megabytes * (1024 * 1024 / Integer.BYTES);
+            }
+        } catch (NumberFormatException ex) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Chunk size must be between 1 and 1024 MB: " + value);
+    }
+
+    private void sort(InputStream in, PrintStream out, PrintStream err) throws IOException {
+        if (stream) {
+            streamTopK(in, out, err);
+            return;
+        }
+        if (external) {
+            sortExternally(in, out, err);
+            return;
+        }
+        if (storage != null) {
+            sortStorage(in, out, err);
+            return;
+        }
+        long startTime = System.nanoTime();
+        IntInputParser parser = new IntInputParser();
+        int[] input = inputPath == null ? parser.parse(Channels.newChannel(in)) : parser.parse(inputPath);
+        long readTime = System.nanoTime();
+
+        HeapSortEngine engine = new HeapSortEngine();
+        engine.setBuildStrategy(buildStrategy);
+        engine.setArity(arity);
+        engine.setTopK(topK);
+        engine.setSiftDownStrategy(siftDownStrategy);
+        int[] sorted = tracePath == null
+            ? engine.sort(input)
+            : TraceFileWriter.record(tracePath, engine, input, checkpointBudgetBytes);
+        if (topK > 0) {
+            // The k largest values end up in ascending order at the end of the array
+            sorted = Arrays.copyOfRange(sorted, sorted.length - engine.resultSize(sorted.length), sorted.length);
+        }
+        long sortTime = System.nanoTime();
+
+        write(sorted, out);
+        long writeTime = System.nanoTime();
+
+        if (printStats) {
+            err.printf("elements: %d%n", input.length);
+            if (topK > 0) {
+                err.printf("top-k: %d of %d%n", sorted.length, input.length);
+            }
+            err.printf("strategy: %s, arity %d, sift-down %s%n", buildStrategy, arity, siftDownStrategy);
+            err.printf("%s%n", engine.getStats().toTable());
+            err.printf("time: read %.1f ms, sort %.1f ms, write %.1f ms%n",
+                (readTime - startTime) / 1e6, (sortTime - readTime) / 1e6, (writeTime - sortTime) / 1e6);
+        }
+        if (compareSift) {
+            err.printf("%s%n", SiftDownComparison.run(input, buildStrategy, arity, topK).toTable());
+        }
+    }
+
+    // Reads the input through a bounded min-heap without holding more than k values
+    private void streamTopK(InputStream in, PrintStream out, PrintStream err) throws IOException {
+        long startTime = System.nanoTime();
+        StreamingTopK top = new StreamingTopK(topK);
+        IntInputParser parser = new IntInputParser();
+        if (inputPath == null) {
+            parser.parse(Channels.newChannel(in), top);
+        } else {
+            try (FileChannel channel = FileChannel.open(inputPath)) {
+                parser.parse(channel, top);
+            }
+        }
+        int[] result = top.toSortedArray();
+        long readTime = System.nanoTime();
+        write(result, out);
+        long writeTime = System.nanoTime();
+
+        if (printStats) {
+            double seconds = (readTime - startTime) / 1e9;
+            err.printf("elements: %d%n", top.count());
+            err.printf("top-k: %d of %d (streamed, %.0f values/s)%n", result.length, top.count(),
+                seconds > 0 ? top.count() / seconds : 0);
+            err.printf("time: read and select %.1f ms, write %.1f ms%n",
+                (readTime - startTime) / 1e6, (writeTime - readTime) / 1e6);
+        }
+    }
+
+    // Sorts chunk by chunk into run files and merges them, so only one chunk is held in memory
+    private void sortExternally(InputStream in, PrintStream out, PrintStream err) throws IOException {
+        IntStorageHeapSort runSorter = new IntStorageHeapSort();
+        runSorter.setBuildStrategy(buildStrategy);
+        runSorter.setArity(arity);
+        runSorter.setSiftDownStrategy(siftDownStrategy);
+        ExternalHeapSort sorter = new ExternalHeapSort(runSorter, chunkSize, tempDirectory);
+        ExternalSortStats stats;
+        // Only the file channels are closed; stdin and stdout stay open
+        ReadableByteChannel input = inputPath == null ? Channels.newChannel(in) : FileChannel.open(inputPath);
+        try {
+            WritableByteChannel output = outputPath == null ? Channels.newChannel(out)
+                : FileChannel.open(outputPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                stats = sorter.sort(input, output);
+            } finally {
+                if (outputPath != null) {
+                    output.close();
+                }
+            }
+        } finally {
+            if (inputPath != null) {
+                input.close();
+            }
+        }
+        out.flush();
+
+        if (printStats) {
+            err.printf("strategy: %s, arity %d, chunk %d values%n", buildStrategy, arity, chunkSize);
+            err.printf("%s%n", stats.toTable());
+        }
+    }
+
+    // Parses into the selected storage and sorts it in place, without an int[] of the whole input
+    private void sortStorage(InputStream in, PrintStream out, PrintStream err) throws IOException {
+        long startTime = System.nanoTime();
+        try (IntStorage values = openStorage()) {
+            IntInputParser parser = new IntInputParser();
+            if (inputPath == null) {
+                parser.parse(Channels.newChannel(in), values);
+            } else {
+                try (FileChannel channel = FileChannel.open(inputPath)) {
+                    parser.parse(channel, values);
+                }
+            }
+            long readTime = System.nanoTime();
+
+            IntStorageHeapSort sorter = new IntStorageHeapSort();
+            sorter.setBuildStrategy(buildStrategy);
+            sorter.setArity(arity);
+            sorter.setSiftDownStrategy(siftDownStrategy);
+            sorter.sort(values);
+            long sortTime = System.nanoTime();
+
+            write(values, out);
+            long writeTime = System.nanoTime();
+
+            if (printStats) {
+                err.printf("elements: %d%n", values.size());
+                err.printf("strategy: %s, arity %d, sift-down %s, storage %s%n", buildStrategy, arity,
+                    siftDownStrategy, storage);
+                err.printf("%s%n", sorter.getStats().toTable());
+                err.printf("time: read %.1f ms, sort %.1f ms, write %.1f ms%n",
+                    (readTime - startTime) / 1e6, (sortTime - readTime) / 1e6, (writeTime - sortTime) / 1e6);
+            }
+        }
+    }
+
+    private IntStorage openStorage() throws IOException {
+        switch (storage) {
+            case "direct":
+                return IntStorage.direct();
+            case "mapped":
+                // Start from an empty file rather than sorting its old contents along
+                Files.deleteIfExists(storagePath);
+                return IntStorage.mapped(storagePath);
+            default:
+                return IntStorage.onHeap();
+        }
+    }
+
+    private void write(int[] values, PrintStream out) throws IOException {
+        write(IntStorage.onHeap(values), out);
+    }
+
+    private void write(IntStorage values, PrintStream out) throws IOException {
+        if (outputPath == null) {
+            writeIntegers(values, out);
+            out.flush();
+        } else {
+            try (OutputStream file = Files.newOutputStream(outputPath)) {
+                writeIntegers(values, file);
+            }
+        }
+    }
+
+    // One value per line, formatted without intermediate strings
+    private static void writeIntegers(IntStorage values, OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+        byte[] digits = new byte[12];
+        long size = values.size();
+        for (long i = 0; i < size; i++) {
+            int value = values.get(i);
+            int position = digits.length;
+            digits[--position] = '\n';
+            long remaining = Math.abs((long) value);
+            do {
+                digits[--position] = (byte) ('0' + remaining % 10);
+                remaining /= 10;
+            } while (remaining != 0);
+            if (value < 0) {
+                digits[--position] = '-';
+            }
+            buffered.write(digits, position, digits.length - position);
+        }
+        buffered.flush();
+    }
+}
@@ -1,9 +1,9 @@
 package com.example;
 
 import javafx.fxml.FXML;
+import javafx.scene.Group;
 import javafx.scene.control.*;
 import javafx.scene.layout.Pane;
-import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.animation.Timeline;
 import javafx.animation.KeyFrame;
@@ -20,10 +20,13 @@ import javafx.scene.shape.Path;
 import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.LineTo;
 import javafx.geometry.Bounds;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.HashMap;
-import java.util.Map;
+import javafx.concurrent.Task;
+import javafx.stage.FileChooser;
+import javafx.util.StringConverter;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Random;
 import javafx.animation.RotateTransition;
 
@@ -32,6 +35,10 @@ public class HeapSortController {
     @FXML private TextField countField;
     @FXML private Button randomButton;
     @FXML private Button sortButton;
+    @FXML private Button openTraceButton;
+    @FXML private Button streamTopKButton;
+    @FXML private Button externalSortButton;
+    @FXML private Button loadDataButton;
     @FXML private Slider speedSlider;
     @FXML private Label speedValueLabel;
     @FXML private Pane treePane;
@@ -39,62 +46,211 @@ public class HeapSortController {
     @FXML private Button nextButton;
     @FXML private Button autoButton;
     @FXML private Label statusLabel;
-    @FXML private HBox dataArrayContainer;
+    @FXML private DataArrayStrip dataArrayContainer;
     @FXML private Label phaseLabel;
-
-    private List<int[]> steps;
+    @FXML private Label metricsLabel;
+    @FXML private ChoiceBox<HeapBuildStrategy> buildStrategyChoice;
+    @FXML private ChoiceBox<SiftDownStrategy> siftDownChoice;
+    @FXML private ChoiceBox<Integer> arityChoice;
+    @FXML private TextField topKField;
+    @FXML private ChoiceBox<TreeRenderMode> renderModeChoice;
+    @FXML private ProgressBar traceProgressBar;
+    @FXML private Slider stepSlider;
+    @FXML private Button cancelButton;
+    @FXML private CheckBox perfOverlayCheck;
+    @FXML private Button exportPerfButton;
+    @FXML private Label perfOverlayLabel;
+
+    private static final int AUTO_CANVAS_THRESHOLD = 63; // Heaps larger than this use the canvas in Auto mode
+    private static final int MAX_SCENE_GRAPH_NODES = 1023; // Heaps larger than this always use the canvas
+    private static final int MAX_RANDOM_COUNT = 1_000_000; // Largest random input
+    private static final int MAX_LOADED_COUNT = 10_000_000; // Largest loaded input, so its trace fits in an OperationLog
+    private static final int MAX_STREAM_TOP_K = 1 << 20; // Largest bounded heap of the live streaming view
+    private static final int MAX_INPUT_TEXT_COUNT = 1000; // Larger random inputs are not echoed into the input field
+    private static final String TRACE_FILE_EXTENSION = ".hstrace";
+    // Memory for seek snapshots, overridable with -Dheapsort.checkpointBudgetMb=<MB>
+    private static final long CHECKPOINT_BUDGET_BYTES = Integer.getInteger("heapsort.checkpointBudgetMb", 64) * 1024L * 1024L;
+
+    private TraceSource operations; // Steps of the current trace, generated or read from a file
+    private MappedTraceFile traceFile; // Open trace file backing the steps, if any
+    private TraceGenerationTask traceTask; // Worker producing the trace in the background
+    private boolean traceGenerating; // Whether more steps are still to be published
+    private boolean traceComplete; // Whether the trace covers the whole sort
+    private TraceCursor cursor;
+    private TraceCheckpoints checkpoints; // Heap snapshots that make seeking cheap
+    private boolean updatingStepSlider; // Whether the step slider is being moved by code rather than the user
+    private int[] inputArray;
     private int currentStep = 0;
-    private Map<Integer, Circle> nodeCircles;
-    private Map<Integer, Label> nodeLabels;
-    private Timeline animationTimeline;
+    // Tree view model: one Circle/Label/Line per heap slot, created once and reused across steps
+    private Circle[] nodeCircles = new Circle[0];
+    private Label[] nodeLabels = new Label[0];
+    private Line[] nodeLines = new Line[0];
+    private int[] nodeValues = new int[0];
+    private int treeNodeCount; // Number of heap slots currently shown in the tree
+    private final HeapLayout treeLayout = new HeapLayout(); // Node centres of the scene-graph tree
+    private int treeLayoutVersion = -1; // Layout version the shown nodes were positioned with
+    private final Group treeEdgeLayer = new Group();
+    private final Group treeNodeLayer = new Group();
+    private final BitSet animatedTreeNodes = new BitSet(); // Slots whose transforms an animation touched
+    private StepScheduler autoPlayScheduler;
+    private PerformanceMonitor perfMonitor;
     private boolean isAutoPlaying = false;
-    private double animationDuration = 0.5;
-    private Map<Integer, Circle> dataArrayCircles;
-    private Map<Integer, Label> dataArrayLabels;
+    private double animationDuration = 0.5; // Tween length, at least StepScheduler.MIN_TWEEN_SECONDS
+    private int animatingFromStep = -1; // Step whose tweened auto-play transition is running
     private int inputArrayLength; // Length of input array stored
     private int maxHeapLastStepIndex; // Max Heap completion step index
+    private int traceResultSize; // Values the trace sorts: k in top-k mode, otherwise all of them
+    private Task<?> streamTask; // Streaming top-k or external sort with a live heap view, replaces the trace
+    private HeapBuildStrategy traceBuildStrategy; // Build strategy used for the current trace
+    private SiftDownStrategy traceSiftDownStrategy; // Sort phase sift-down used for the current trace
+    private Task<SiftDownComparison> comparisonTask; // Headless runs of both sift-downs on the trace input
+    private SiftDownComparison siftComparison; // Their result, shown below the metrics once available
+    private HeapShape traceShape = new HeapShape(2); // Heap arity of the current trace
+    private HeapSortStats sortStats; // Comparison and swap counts of the current trace
+    private final HeapSortMetrics metrics = new HeapSortMetrics(); // Counters published over JMX
+    private final CanvasTreeRenderer canvasRenderer = new CanvasTreeRenderer();
+    private boolean canvasActive; // Whether the current tree is drawn by the canvas renderer
+    private Timeline maxHeapHighlight; // Max Heap completion highlight, which advances past that step when done
 
     @FXML
     public void initialize() {
-        // Initialize speed slider
-        speedSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
-            animationDuration = newVal.doubleValue();
-            speedValueLabel.setText(String.format("%.1fs", animationDuration));
+        // Speed slider: log10 of steps per second, from 0.5 to 10,000 steps/s
+        autoPlayScheduler = new StepScheduler(new AutoPlayTarget());
+        speedSlider.setLabelFormatter(new StringConverter<Double>() {
+            @Override
+            public String toString(Double value) {
+                return String.format("%,.0f", Math.pow(10, value));
+            }
+
+            @Override
+            public Double fromString(String text) {
+                return Math.log10(Double.parseDouble(text.replace(",", "")));
+            }
+        });
+        speedSlider.valueProperty().addListener((obs, oldVal, newVal) -> setStepsPerSecond(Math.pow(10, newVal.doubleValue())));
+        setStepsPerSecond(Math.pow(10, speedSlider.getValue()));
+
+        // Initialize heap build strategy selector
+        buildStrategyChoice.getItems().setAll(HeapBuildStrategy.values());
+        buildStrategyChoice.setValue(HeapBuildStrategy.INSERTION);
+        siftDownChoice.getItems().setAll(SiftDownStrategy.values());
+        siftDownChoice.setValue(SiftDownStrategy.CLASSIC);
+        arityChoice.getItems().setAll(2, 4, 8);
+        arityChoice.setValue(2);
+
+        // Initialize tree renderer; the canvas follows the tree pane size
+        renderModeChoice.getItems().setAll(TreeRenderMode.values());
+        renderModeChoice.setValue(TreeRenderMode.AUTO);
+        renderModeChoice.valueProperty().addListener((obs, oldVal, newVal) -> {
+            // Redraw right away, except while the Max Heap completion highlight is advancing the step
+            if (operations != null && currentStep != maxHeapLastStepIndex) {
+                drawTree();
+            }
         });
+        canvasRenderer.getCanvas().widthProperty().bind(treePane.widthProperty());
+        canvasRenderer.getCanvas().heightProperty().bind(treePane.heightProperty());
+        treePane.widthProperty().addListener((obs, oldVal, newVal) -> renderCanvasTree());
+        treePane.heightProperty().addListener((obs, oldVal, newVal) -> renderCanvasTree());
 
         // Initialize button actions
         sortButton.setOnAction(e -> handleSort());
+        openTraceButton.setOnAction(e -> handleOpenTrace());
+        streamTopKButton.setOnAction(e -> handleStreamTopK());
+        externalSortButton.setOnAction(e -> handleExternalSort());
+        loadDataButton.setOnAction(e -> handleLoadData());
         randomButton.setOnAction(e -> handleRandom());
         prevButton.setOnAction(e -> showPreviousStep());
         nextButton.setOnAction(e -> showNextStep());
         autoButton.setOnAction(e -> toggleAutoPlay());
+        cancelButton.setOnAction(e -> {
+            cancelTraceGeneration();
+            cancelStream();
+        });
+
+        // Performance overlay and its CSV log
+        perfMonitor = new PerformanceMonitor(perfOverlayLabel, treePane, dataArrayContainer);
+        perfOverlayCheck.selectedProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal) {
+                perfMonitor.start();
+            } else {
+                perfMonitor.stop();
+            }
+        });
+        exportPerfButton.setOnAction(e -> handleExportPerformanceLog());
+        stepSlider.setDisable(true);
+        stepSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (!updatingStepSlider && operations != null) {
+                seekToStep((int) Math.round(newVal.doubleValue()));
+            }
+        });
+        setTraceProgressVisible(false);
         
         // Initial phase setting
         phaseLabel.setText("Waiting");
+        metrics.register();
+        metricsLabel.setText("No sort yet.");
     }
 
     private void handleSort() {
         try {
-            String[] numbers = inputField.getText().split(" ");
-            int[] array = new int[numbers.length];
-            for (int i = 0; i < numbers.length; i++) {
-                array[i] = Integer.parseInt(numbers[i].trim());
+            int[] array = new IntInputParser().parse(inputField.getText());
+            if (array.length == 0) {
+                showError("Please enter valid numbers.");
+                return;
             }
             startSorting(array);
-        } catch (NumberFormatException ex) {
-            showError("Please enter valid numbers.");
+        } catch (IntInputParser.IntParseException ex) {
+            showError("Please enter valid numbers. " + ex.getMessage());
         }
     }
 
+    private void handleLoadData() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Load Data");
+        chooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("Numbers (whitespace or comma separated)", "*.txt", "*.csv"),
+            new FileChooser.ExtensionFilter("All files", "*"));
+        File file = chooser.showOpenDialog(treePane.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        // Large files are parsed off the FX application thread
+        Task<int[]> loadTask = new Task<>() {
+            @Override
+            protected int[] call() throws IOException {
+                return new IntInputParser().parse(file.toPath());
+            }
+        };
+        loadTask.setOnSucceeded(e -> {
+            loadDataButton.setDisable(false);
+            int[] array = loadTask.getValue();
+            if (array.length == 0 || array.length > MAX_LOADED_COUNT) {
+                showError(String.format("The file must contain between 1 and %d numbers.", MAX_LOADED_COUNT));
+                return;
+            }
+            inputField.setText(array.length <= MAX_INPUT_TEXT_COUNT ? arrayToString(array) : "");
+            startSorting(array);
+        });
+        loadTask.setOnFailed(e -> {
+            loadDataButton.setDisable(false);
+            showError("Could not load " + file.getName() + ": " + loadTask.getException().getMessage());
+        });
+        loadDataButton.setDisable(true);
+        statusLabel.setText("Loading " + file.getName() + "...");
+        Thread loader = new Thread(loadTask, "heap-sort-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
     private void handleRandom() {
         try {
             int count = Integer.parseInt(countField.getText().trim());
-            if (count <= 0 || count > 31) {
-                showError("Please enter a number between 1 and 31.");
+            if (count <= 0 || count > MAX_RANDOM_COUNT) {
+                showError(String.format("Please enter a number between 1 and %d.", MAX_RANDOM_COUNT));
                 return;
             }
             int[] randomArray = generateRandomArray(count);
-            inputField.setText(arrayToString(randomArray));
+            inputField.setText(count <= MAX_INPUT_TEXT_COUNT ? arrayToString(randomArray) : "");
             startSorting(randomArray);
         } catch (NumberFormatException ex) {
             showError("Please enter a valid number.");
@@ -115,15 +271,7 @@ public class HeapSortController {
         nextButton.setDisable(true);
         prevButton.setDisable(true);
 
-        animationTimeline = new Timeline(new KeyFrame(Duration.seconds(animationDuration), e -> {
-            if (currentStep < steps.size() - 1) {
-                showNextStep();
-            } else {
-                stopAutoPlay();
-            }
-        }));
-        animationTimeline.setCycleCount(Timeline.INDEFINITE);
-        animationTimeline.play();
+        autoPlayScheduler.start();
     }
 
     private void stopAutoPlay() {
@@ -131,221 +279,565 @@ public class HeapSortController {
         autoButton.setText("Auto Play");
         nextButton.setDisable(false);
         prevButton.setDisable(false);
-        if (animationTimeline != null) {
-            animationTimeline.stop();
+        autoPlayScheduler.stop();
+        animatingFromStep = -1;
+    }
+
+    private void setStepsPerSecond(double stepsPerSecond) {
+        autoPlayScheduler.setStepsPerSecond(stepsPerSecond);
+        animationDuration = Math.max(StepScheduler.MIN_TWEEN_SECONDS, 1 / stepsPerSecond);
+        speedValueLabel.setText(stepsPerSecond < 10
+            ? String.format("%.1fs", 1 / stepsPerSecond)
+            : String.format("%,.0f/s", stepsPerSecond));
+    }
+
+    // Auto-play hooks of the step scheduler
+    private class AutoPlayTarget implements StepScheduler.Target {
+        @Override
+        public int position() {
+            return currentStep;
+        }
+
+        @Override
+        public int lastAvailableStep() {
+            return totalSteps() - 1;
+        }
+
+        @Override
+        public boolean hasPendingSteps() {
+            return traceGenerating;
+        }
+
+        @Override
+        public boolean isAnimating() {
+            // The Max Heap highlight advances past its step by itself when it ends
+            return currentStep == animatingFromStep || maxHeapHighlight != null;
+        }
+
+        @Override
+        public void animateNextStep() {
+            animatingFromStep = currentStep;
+            showNextStep();
+        }
+
+        @Override
+        public void jumpTo(int step) {
+            perfMonitor.stepStarted();
+            currentStep = step;
+            updateNavigationButtons();
+            drawTree();
+            perfMonitor.stepFinished();
+        }
+
+        @Override
+        public void finished() {
+            stopAutoPlay();
         }
     }
 
-    private void startSorting(int[] array) {
+    private void handleExportPerformanceLog() {
+        if (perfMonitor.sampleCount() == 0) {
+            showError("No performance samples yet. Enable the performance overlay first.");
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Performance Log");
+        chooser.setInitialFileName("heap-sort-performance.csv");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showSaveDialog(treePane.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            perfMonitor.exportCsv(file.toPath());
+        } catch (IOException ex) {
+            showError("Could not write " + file.getName() + ": " + ex.getMessage());
+        }
+    }
+
+    private void handleOpenTrace() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Open Trace");
+        chooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("Heap sort traces", "*" + TRACE_FILE_EXTENSION),
+            new FileChooser.ExtensionFilter("All files", "*"));
+        File file = chooser.showOpenDialog(treePane.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        MappedTraceFile trace;
+        TraceCheckpoints traceCheckpoints;
+        try {
+            trace = MappedTraceFile.open(file.toPath());
+            try {
+                traceCheckpoints = trace.readCheckpoints(CHECKPOINT_BUDGET_BYTES);
+            } catch (IOException | RuntimeException ex) {
+                trace.close();
+                throw ex;
+            }
+        } catch (IOException ex) {
+            showError("Could not open trace file: " + ex.getMessage());
+            return;
+        }
+        // The file is navigated in place; only the input and snapshots are held in memory
+        int topK = trace.topK();
+        int resultSize = topK == 0 ? trace.input().length : Math.min(topK, trace.input().length);
+        prepareTrace(trace, trace.input(), traceCheckpoints, new HeapShape(trace.arity()), resultSize);
+        traceFile = trace;
+        traceBuildStrategy = trace.buildStrategy();
+        traceSiftDownStrategy = trace.siftDownStrategy();
+        sortStats = trace.stats();
+        showMetrics(sortStats, false);
+        startSiftDownComparison(topK);
+        traceComplete = true;
+        if (trace.heapBuiltStep() >= 0) {
+            maxHeapLastStepIndex = trace.heapBuiltStep();
+        }
+        inputField.setText(trace.input().length <= MAX_INPUT_TEXT_COUNT ? arrayToString(trace.input()) : "");
+
+        currentStep = 0;
+        updateNavigationButtons();
+        drawTree();
+    }
+
+    // Resets the view for a new trace over the given input
+    private void prepareTrace(TraceSource source, int[] input, TraceCheckpoints traceCheckpoints, HeapShape shape,
+                              int resultSize) {
         stopAutoPlay();
-        steps = new ArrayList<>();
-        inputArrayLength = array.length;
-        maxHeapLastStepIndex = -1;
-        steps.add(new int[0]);
-        initializeDataArray(array);
+        stopMaxHeapHighlight();
+        cancelTraceGeneration();
+        cancelStream();
+        traceTask = null;
+        traceGenerating = false;
+        traceProgressBar.progressProperty().unbind();
+        setTraceProgressVisible(false);
+        closeTraceFile();
+        comparisonTask = null;
+        siftComparison = null;
+        operations = source;
+        inputArray = input;
+        checkpoints = traceCheckpoints;
+        cursor = new TraceCursor(operations, inputArray, checkpoints);
+        inputArrayLength = input.length;
+        traceResultSize = resultSize;
+        maxHeapLastStepIndex = Integer.MAX_VALUE; // Not known until the trace reports it
+        initializeDataArray(input);
+        traceShape = shape;
+        canvasRenderer.setShape(shape);
+        canvasRenderer.resetView();
+        canvasRenderer.setValueRange(Arrays.stream(input).min().orElse(0), Arrays.stream(input).max().orElse(0));
         phaseLabel.setText("Building Max Heap");
         statusLabel.setText("Adding data to Max Heap...");
-        
-        // 1. Max Heap Construction Phase
-        int[] currentArray = new int[0];
-        int[] remainingData = array.clone();
-        
-        // Add nodes one by one from data array to Max Heap
-        for (int i = 0; i < array.length; i++) {
-            // Add new node
-            int[] newArray = new int[i + 1];
-            if (i > 0) {
-                System.arraycopy(currentArray, 0, newArray, 0, i);
+    }
+
+    private void handleStreamTopK() {
+        int topK = readTopK();
+        if (topK < 0) {
+            return;
+        }
+        if (topK == 0 || topK > MAX_STREAM_TOP_K) {
+            showError(String.format("Enter how many values to keep (1 to %d) in the Top k field.", MAX_STREAM_TOP_K));
+            return;
+        }
+        ButtonType fromFile = new ButtonType("File...");
+        ButtonType fromRandom = new ButtonType("Random");
+        Alert choice = new Alert(Alert.AlertType.CONFIRMATION,
+            "Stream values from a file, or random values until cancelled?", fromFile, fromRandom, ButtonType.CANCEL);
+        choice.setTitle("Stream Top-k");
+        choice.setHeaderText(null);
+        ButtonType answer = choice.showAndWait().orElse(ButtonType.CANCEL);
+        StreamingTopKTask.IntSource source;
+        String sourceName;
+        if (answer == fromFile) {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Stream Data File");
+            File file = chooser.showOpenDialog(treePane.getScene().getWindow());
+            if (file == null) {
+                return;
             }
-            newArray[i] = remainingData[0];  // Use first data
-            currentArray = newArray;
-            steps.add(currentArray.clone());
-            
-            // Compare new node with parent to maintain heap property
-            int currentIndex = i;
-            while (currentIndex > 0) {
-                int parentIndex = (currentIndex - 1) / 2;
-                steps.add(currentArray.clone());
-                
-                if (currentArray[currentIndex] > currentArray[parentIndex]) {
-                    // Swap
-                    int temp = currentArray[currentIndex];
-                    currentArray[currentIndex] = currentArray[parentIndex];
-                    currentArray[parentIndex] = temp;
-                    steps.add(currentArray.clone());
-                    currentIndex = parentIndex;
-                } else {
-                    break;
-                }
+            source = StreamingTopKTask.fromFile(file.toPath());
+            sourceName = file.getName();
+        } else if (answer == fromRandom) {
+            source = StreamingTopKTask.random(System.nanoTime());
+            sourceName = "random values";
+        } else {
+            return;
+        }
+
+        prepareStreamView(topK);
+        StreamingTopKTask task = new StreamingTopKTask(new StreamingTopK(topK), source,
+            snapshot -> showStreamSnapshot(snapshot, sourceName));
+        task.setOnSucceeded(e -> finishStream(task, "Streaming Complete"));
+        task.setOnCancelled(e -> finishStream(task, "Streaming Stopped"));
+        task.setOnFailed(e -> {
+            finishStream(task, "Streaming Failed");
+            showError("Streaming failed: " + task.getException().getMessage());
+        });
+        streamTask = task;
+        traceProgressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        setTraceProgressVisible(true);
+        phaseLabel.setText("Streaming Top-k");
+        statusLabel.setText("Reading " + sourceName + "...");
+        Thread worker = new Thread(task, "heap-sort-stream");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Clears the trace so the tree shows the bounded min-heap of a stream instead
+    private void prepareStreamView(int topK) {
+        stopAutoPlay();
+        stopMaxHeapHighlight();
+        cancelTraceGeneration();
+        cancelStream();
+        traceTask = null;
+        traceGenerating = false;
+        traceComplete = false;
+        traceProgressBar.progressProperty().unbind();
+        closeTraceFile();
+        operations = null;
+        cursor = null;
+        checkpoints = null;
+        inputArray = new int[0];
+        inputArrayLength = topK;
+        traceResultSize = topK;
+        traceShape = new HeapShape(2);
+        canvasRenderer.setShape(traceShape);
+        canvasRenderer.resetView();
+        currentStep = 0;
+        updateNavigationButtons();
+        dataArrayContainer.setContent(inputArray, 0, 0, 0);
+    }
+
+    private void showStreamSnapshot(HeapSnapshot snapshot, String sourceName) {
+        if (snapshot.size == 0) {
+            return;
+        }
+        showLiveHeap(snapshot);
+        double seconds = snapshot.elapsedNanos / 1e9;
+        statusLabel.setText(String.format("Top %d of %,d values from %s (%,.0f values/s), smallest kept: %d",
+            snapshot.size, snapshot.count, sourceName, seconds > 0 ? snapshot.count / seconds : 0,
+            snapshot.heap[0]));
+    }
+
+    // Draws a min-heap snapshot in the tree and its values in ascending order in the data array
+    private void showLiveHeap(HeapSnapshot snapshot) {
+        int[] heap = snapshot.heap;
+        int size = snapshot.size;
+        if (size == 0) {
+            return;
+        }
+        int[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted);
+        canvasActive = useCanvasRenderer();
+        if (canvasActive) {
+            if (!treePane.getChildren().contains(canvasRenderer.getCanvas())) {
+                treePane.getChildren().setAll(canvasRenderer.getCanvas());
             }
-            
-            // Remove used data
-            if (remainingData.length > 1) {
-                int[] newRemainingData = new int[remainingData.length - 1];
-                System.arraycopy(remainingData, 1, newRemainingData, 0, remainingData.length - 1);
-                remainingData = newRemainingData;
-            } else {
-                remainingData = new int[0];  // Set empty array when last data is used
+            canvasRenderer.setValueRange(sorted[0], sorted[size - 1]);
+            canvasRenderer.render(heap, size, Color.LIGHTGREEN, Color.DARKGREEN);
+        } else {
+            if (!treePane.getChildren().contains(treeNodeLayer)) {
+                treePane.getChildren().setAll(treeEdgeLayer, treeNodeLayer);
             }
-            
-            // Update data array visualization (show only remaining data)
-            updateDataArray(remainingData);
+            updateTreeNodes(heap, size, Color.LIGHTGREEN, Color.DARKGREEN);
         }
-        
-        // 2. Max Heap Completion Phase
-        steps.add(currentArray.clone());
-        maxHeapLastStepIndex = steps.size() - 1;
-        
-        // 3. Heap Sort Phase
-        int[] heapArray = currentArray.clone();
-        int heapSize = heapArray.length;
-        
-        for (int i = heapSize - 1; i > 0; i--) {
-            // Save state before swapping root (max value) with last node
-            steps.add(heapArray.clone());
-            
-            // Swap root (max value) with last node
-            int temp = heapArray[0];
-            heapArray[0] = heapArray[i];
-            heapArray[i] = temp;
-            steps.add(heapArray.clone());
-            
-            // Restore heap property (heapify)
-            int currentIndex = 0;
-            while (true) {
-                int largest = currentIndex;
-                int left = 2 * currentIndex + 1;
-                int right = 2 * currentIndex + 2;
-                
-                // Add comparison step
-                steps.add(heapArray.clone());
-                
-                // Find maximum among current node and children
-                if (left < i && heapArray[left] > heapArray[largest]) {
-                    largest = left;
-                }
-                if (right < i && heapArray[right] > heapArray[largest]) {
-                    largest = right;
-                }
-                
-                // Swap if maximum is not current node
-                if (largest != currentIndex) {
-                    temp = heapArray[currentIndex];
-                    heapArray[currentIndex] = heapArray[largest];
-                    heapArray[largest] = temp;
-                    steps.add(heapArray.clone());
-                    currentIndex = largest;
-                } else {
-                    break;
-                }
+        dataArrayContainer.setContent(sorted, 0, size, size);
+    }
+
+    private void handleExternalSort() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("External Sort Input");
+        File input = chooser.showOpenDialog(treePane.getScene().getWindow());
+        if (input == null) {
+            return;
+        }
+        chooser.setTitle("External Sort Output");
+        chooser.setInitialDirectory(input.getParentFile());
+        chooser.setInitialFileName(input.getName() + ".sorted");
+        File output = chooser.showSaveDialog(treePane.getScene().getWindow());
+        if (output == null) {
+            return;
+        }
+        if (output.equals(input)) {
+            showError("The output file must differ from the input file.");
+            return;
+        }
+
+        // Runs are sorted with the selected build strategy and arity; the merge heap is always binary
+        IntStorageHeapSort runSorter = new IntStorageHeapSort();
+        runSorter.setBuildStrategy(buildStrategyChoice.getValue());
+        runSorter.setArity(arityChoice.getValue());
+        ExternalHeapSort sorter = new ExternalHeapSort(runSorter, ExternalHeapSort.DEFAULT_CHUNK_SIZE,
+            output.toPath().toAbsolutePath().getParent());
+        prepareStreamView(0);
+        ExternalSortTask task = new ExternalSortTask(sorter, input.toPath(), output.toPath(), this::showLiveHeap);
+        task.messageProperty().addListener((obs, oldVal, newVal) -> {
+            if (task == streamTask) {
+                statusLabel.setText(newVal);
             }
+        });
+        task.setOnSucceeded(e -> {
+            finishStream(task, "External Sort Complete");
+            statusLabel.setText("Sorted into " + output.getName() + ": " + task.getValue());
+        });
+        task.setOnCancelled(e -> finishStream(task, "External Sort Stopped"));
+        task.setOnFailed(e -> {
+            finishStream(task, "External Sort Failed");
+            showError("External sort failed: " + task.getException().getMessage());
+        });
+        streamTask = task;
+        traceProgressBar.progressProperty().bind(task.progressProperty());
+        setTraceProgressVisible(true);
+        phaseLabel.setText("External Sort: Merge Heap of Run Heads");
+        statusLabel.setText("Reading " + input.getName() + "...");
+        Thread worker = new Thread(task, "heap-sort-external");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void finishStream(Task<?> task, String phase) {
+        if (task != streamTask) {
+            return;
         }
-        
-        // 4. Tree Traversal and Data Array Reconstruction Phase
-        int[] sortedArray = new int[heapArray.length];
-        for (int i = 0; i < heapArray.length; i++) {
-            sortedArray[i] = heapArray[i];
-            steps.add(heapArray.clone());  // Save current heap state
-            updateDataArrayWithSortedData(sortedArray, i + 1);  // Update array with sorted data
+        streamTask = null;
+        traceProgressBar.progressProperty().unbind();
+        setTraceProgressVisible(false);
+        phaseLabel.setText(phase);
+    }
+
+    private void cancelStream() {
+        if (streamTask != null && streamTask.isRunning()) {
+            streamTask.cancel();
+        }
+    }
+
+    private void closeTraceFile() {
+        if (traceFile != null) {
+            try {
+                traceFile.close();
+            } catch (IOException ex) {
+                showError("Could not close trace file: " + ex.getMessage());
+            }
+            traceFile = null;
+        }
+    }
+
+    private void startSorting(int[] array) {
+        int topK = readTopK();
+        if (topK < 0) {
+            return;
         }
+        OperationLog log = new OperationLog();
+        int[] input = array.clone();
+        int arity = arityChoice.getValue();
+        HeapSortEngine engine = new HeapSortEngine();
+        engine.setArity(arity);
+        engine.setTopK(topK);
+        prepareTrace(log, input, new TraceCheckpoints(input.length, CHECKPOINT_BUDGET_BYTES), new HeapShape(arity),
+            engine.resultSize(input.length));
+        
+        // Record the headless engine's events on a worker thread; steps arrive in batches
+        traceBuildStrategy = buildStrategyChoice.getValue();
+        traceSiftDownStrategy = siftDownChoice.getValue();
+        sortStats = null;
+        traceComplete = false;
+        traceGenerating = true;
+        engine.setBuildStrategy(traceBuildStrategy);
+        engine.setSiftDownStrategy(traceSiftDownStrategy);
+        TraceGenerationTask task = new TraceGenerationTask(engine, inputArray, checkpoints,
+            batch -> appendSteps(log, batch));
+        task.valueProperty().addListener((obs, oldStats, newStats) -> {
+            if (newStats != null && task == traceTask && task.isRunning()) {
+                showMetrics(newStats, true);
+            }
+        });
+        task.setOnSucceeded(e -> finishTraceGeneration(task, true));
+        task.setOnCancelled(e -> finishTraceGeneration(task, false));
+        task.setOnFailed(e -> {
+            finishTraceGeneration(task, false);
+            showError("Trace generation failed: " + task.getException());
+        });
+        traceTask = task;
+        traceProgressBar.progressProperty().bind(task.progressProperty());
+        setTraceProgressVisible(true);
+        Thread worker = new Thread(task, "heap-sort-trace");
+        worker.setDaemon(true);
+        worker.start();
         
         currentStep = 0;
         updateNavigationButtons();
         drawTree();
     }
 
-    private void initializeDataArray(int[] array) {
-        dataArrayContainer.getChildren().clear();
-        dataArrayCircles = new HashMap<>();
-        dataArrayLabels = new HashMap<>();
+    private void appendSteps(OperationLog log, OperationLog batch) {
+        boolean waitingForSteps = currentStep >= totalSteps() - 1;
+        log.append(batch);
+        if (log.heapBuiltStep() >= 0) {
+            maxHeapLastStepIndex = log.heapBuiltStep();
+        }
+        nextButton.setDisable(currentStep >= totalSteps() - 1 || isAutoPlaying);
+        updateStepSlider();
+        if (waitingForSteps) {
+            updateNavigationButtons();
+        }
+    }
 
-        for (int i = 0; i < array.length; i++) {
-            Circle circle = new Circle(20);
-            circle.setFill(Color.LIGHTBLUE);
-            circle.setStroke(Color.BLACK);
-            
-            Label label = new Label(String.valueOf(array[i]));
-            label.setStyle("-fx-font-weight: bold;");
-            
-            StackPane stackPane = new StackPane();
-            stackPane.getChildren().addAll(circle, label);
-            stackPane.setStyle("-fx-padding: 5;");
-            
-            dataArrayCircles.put(i, circle);
-            dataArrayLabels.put(i, label);
-            dataArrayContainer.getChildren().add(stackPane);
+    private void seekToStep(int step) {
+        stopAutoPlay();
+        stopMaxHeapHighlight();
+        step = Math.max(0, Math.min(step, totalSteps() - 1));
+        if (step != currentStep) {
+            currentStep = step;
+            updateNavigationButtons();
+            drawTree();
+            // Show the Max Heap frame without advancing past the step the user picked
+            stopMaxHeapHighlight();
         }
     }
 
-    private void updateDataArray(int[] remainingData) {
-        dataArrayContainer.getChildren().clear();
-        dataArrayCircles.clear();
-        dataArrayLabels.clear();
-        
-        for (int i = 0; i < remainingData.length; i++) {
-            Circle circle = new Circle(20);
-            circle.setFill(Color.LIGHTBLUE);
-            circle.setStroke(Color.BLACK);
-            
-            Label label = new Label(String.valueOf(remainingData[i]));
-            label.setStyle("-fx-font-weight: bold;");
-            
-            StackPane stackPane = new StackPane();
-            stackPane.getChildren().addAll(circle, label);
-            stackPane.setStyle("-fx-padding: 5;");
-            
-            dataArrayCircles.put(i, circle);
-            dataArrayLabels.put(i, label);
-            dataArrayContainer.getChildren().add(stackPane);
+    private void updateStepSlider() {
+        updatingStepSlider = true;
+        stepSlider.setMax(Math.max(0, totalSteps() - 1));
+        stepSlider.setValue(currentStep);
+        stepSlider.setDisable(operations == null);
+        updatingStepSlider = false;
+    }
+
+    private void cancelTraceGeneration() {
+        if (traceTask != null && traceTask.isRunning()) {
+            traceTask.cancel();
         }
     }
 
-    private void updateDataArrayVisual(int[] originalArray, int usedCount) {
-        dataArrayContainer.getChildren().clear();
-        dataArrayCircles.clear();
-        dataArrayLabels.clear();
-        
-        for (int i = 0; i < originalArray.length; i++) {
-            Circle circle = new Circle(20);
-            if (i < usedCount) {
-                circle.setFill(Color.GRAY);  // Used data is shown in gray
-            } else {
-                circle.setFill(Color.LIGHTBLUE);  // Unused data is shown in blue
+    private void finishTraceGeneration(TraceGenerationTask task, boolean succeeded) {
+        if (task != traceTask) {
+            return; // A newer trace has replaced this one
+        }
+        traceGenerating = false;
+        traceComplete = succeeded;
+        if (succeeded) {
+            sortStats = task.getValue();
+            showMetrics(sortStats, false);
+            startSiftDownComparison(isTopK() ? traceResultSize : 0);
+        } else if (task.getValue() != null) {
+            showMetrics(task.getValue(), false);
+        }
+        traceProgressBar.progressProperty().unbind();
+        setTraceProgressVisible(false);
+        updateNavigationButtons();
+        if (currentStep == totalSteps() - 1 && currentStep != maxHeapLastStepIndex) {
+            drawTree();
+        }
+    }
+
+    // Top-k count from the input field: 0 when empty (full sort), -1 after reporting an invalid value
+    private int readTopK() {
+        String text = topKField.getText().trim();
+        if (text.isEmpty()) {
+            return 0;
+        }
+        try {
+            int topK = Integer.parseInt(text);
+            if (topK > 0) {
+                return topK;
             }
-            circle.setStroke(Color.BLACK);
-            
-            Label label = new Label(String.valueOf(originalArray[i]));
-            label.setStyle("-fx-font-weight: bold;");
-            
-            StackPane stackPane = new StackPane();
-            stackPane.getChildren().addAll(circle, label);
-            stackPane.setStyle("-fx-padding: 5;");
-            
-            dataArrayCircles.put(i, circle);
-            dataArrayLabels.put(i, label);
-            dataArrayContainer.getChildren().add(stackPane);
+        } catch (NumberFormatException ex) {
+            // Reported below
         }
+        showError("Top k must be a positive whole number, or empty to sort everything.");
+        return -1;
     }
 
-    private void animateDataToHeap(int dataIndex, int heapIndex, Runnable onComplete) {
-        if (dataArrayContainer == null || dataArrayContainer.getChildren().isEmpty()) {
-            if (onComplete != null) onComplete.run();
-            return;
+    private boolean isTopK() {
+        return traceResultSize < inputArrayLength;
+    }
+
+    // Phase text of the sort phase, e.g. "Extracting top 10 of 1000"
+    private String sortingText() {
+        return isTopK() ? String.format("Extracting top %d of %d", traceResultSize, inputArrayLength) : "Sorting";
+    }
+
+    private void showMetrics(HeapSortStats stats, boolean running) {
+        metrics.update(stats, traceBuildStrategy, traceShape.arity(), inputArrayLength, running);
+        if (running) {
+            metricsLabel.setText(stats.toTable() + System.lineSeparator() + "(running)");
+        } else if (siftComparison != null) {
+            metricsLabel.setText(stats.toTable() + System.lineSeparator() + System.lineSeparator()
+                + siftComparison.toTable());
+        } else {
+            metricsLabel.setText(stats.toTable());
         }
+    }
 
-        // Check if dataIndex is within valid range
-        if (dataIndex < 0 || dataIndex >= dataArrayContainer.getChildren().size()) {
-            if (onComplete != null) onComplete.run();
-            return;
+    // Sorts the trace input headlessly with both sift-downs so the metrics can show them side by side
+    private void startSiftDownComparison(int topK) {
+        int[] input = inputArray;
+        HeapBuildStrategy buildStrategy = traceBuildStrategy;
+        int arity = traceShape.arity();
+        Task<SiftDownComparison> task = new Task<>() {
+            @Override
+            protected SiftDownComparison call() {
+                return SiftDownComparison.run(input, buildStrategy, arity, topK);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (task == comparisonTask && sortStats != null) {
+                siftComparison = task.getValue();
+                showMetrics(sortStats, false);
+            }
+        });
+        comparisonTask = task;
+        Thread worker = new Thread(task, "heap-sort-sift-comparison");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void setTraceProgressVisible(boolean visible) {
+        traceProgressBar.setVisible(visible);
+        traceProgressBar.setManaged(visible);
+        cancelButton.setVisible(visible);
+        cancelButton.setManaged(visible);
+    }
+
+    // Number of steps generated so far
+    private int totalSteps() {
+        return operations == null ? 0 : operations.size() + 1;
+    }
+
+    private String stepCountText(int count) {
+        return traceGenerating ? count + "+" : String.valueOf(count);
+    }
+
+    private void initializeDataArray(int[] array) {
+        dataArrayContainer.setContent(array, 0, array.length, 0);
+    }
+
+    private void updateDataArrayView() {
+        int heapSize = cursor.heapSize();
+        int sortedCount = cursor.sortedCount();
+        if (sortedCount > 0) {
+            // Data Array Reconstruction: sorted data is shown in green
+            // Top-k results occupy the end of the array, largest last
+            int resultStart = inputArrayLength - traceResultSize;
+            dataArrayContainer.setContent(cursor.heap(), resultStart, inputArrayLength, resultStart + sortedCount);
+        } else if (currentStep < maxHeapLastStepIndex) {
+            // Show only the data that has not been added to the heap yet
+            dataArrayContainer.setContent(inputArray, heapSize, inputArrayLength, 0);
+        } else {
+            dataArrayContainer.setContent(inputArray, inputArrayLength, inputArrayLength, 0);
         }
+    }
 
-        if (!dataArrayCircles.containsKey(dataIndex)) {
+    private void animateDataToHeap(int dataIndex, int heapIndex, Runnable onComplete) {
+        // Look the data cell up by its input index, scrolling it into view if needed
+        DataArrayStrip.Cell dataCell = dataArrayContainer.reveal(dataIndex);
+        if (dataCell == null) {
             if (onComplete != null) onComplete.run();
             return;
         }
 
-        Circle dataCircle = dataArrayCircles.get(dataIndex);
-        Label dataLabel = dataArrayLabels.get(dataIndex);
+        Circle dataCircle = dataCell.circle();
+        Label dataLabel = dataCell.label();
 
         // Create animation circle
         Circle animCircle = new Circle(dataCircle.getRadius());
@@ -365,8 +857,17 @@ public class HeapSortController {
         Bounds containerBounds = treePane.localToScene(treePane.getBoundsInLocal());
 
         // Calculate destination position in heap tree
-        double heapX = calculateHeapNodeX(heapIndex);
-        double heapY = calculateHeapNodeY(heapIndex);
+        double heapX;
+        double heapY;
+        if (canvasActive) {
+            heapX = canvasRenderer.screenX(heapIndex);
+            heapY = canvasRenderer.screenY(heapIndex);
+        } else {
+            // Where the node will sit once it is part of the heap
+            updateTreeLayout(heapIndex + 1);
+            heapX = treeLayout.x(heapIndex);
+            heapY = treeLayout.y(heapIndex);
+        }
 
         // Set animation panel position
         animPane.setLayoutX(dataBounds.getMinX() - containerBounds.getMinX());
@@ -414,384 +915,321 @@ public class HeapSortController {
         parallelTransition.setOnFinished(e -> {
             treePane.getChildren().remove(animPane);
             
-            // Remove node from data array (fade out effect)
-            if (dataIndex < dataArrayContainer.getChildren().size()) {
-                StackPane dataNode = (StackPane) dataArrayContainer.getChildren().get(dataIndex);
-                FadeTransition removeTransition = new FadeTransition(Duration.seconds(animationDuration * 0.5), dataNode);
-                removeTransition.setFromValue(1.0);
-                removeTransition.setToValue(0.0);
-                
-                removeTransition.setOnFinished(event -> {
-                    dataArrayContainer.getChildren().remove(dataNode);
-                    dataArrayCircles.remove(dataIndex);
-                    dataArrayLabels.remove(dataIndex);
-                    rebuildDataArray();
-                    if (onComplete != null) onComplete.run();
-                });
-                
-                removeTransition.play();
-            } else {
+            // Fade out the used data; the next step hides its cell
+            FadeTransition removeTransition = new FadeTransition(Duration.seconds(animationDuration * 0.5), dataCell);
+            removeTransition.setFromValue(1.0);
+            removeTransition.setToValue(0.0);
+            removeTransition.setOnFinished(event -> {
                 if (onComplete != null) onComplete.run();
-            }
+            });
+            removeTransition.play();
         });
 
         parallelTransition.play();
     }
 
-    private double calculateHeapNodeX(int heapIndex) {
-        // Calculate level of heap tree
-        int level = (int) (Math.log(heapIndex + 1) / Math.log(2));
-        
-        // Calculate position of node in current level
-        int positionInLevel = heapIndex - (int) Math.pow(2, level) + 1;
-        
-        // Maximum number of nodes in current level
-        int maxNodesInLevel = (int) Math.pow(2, level);
-        
-        // Calculate pane width
-        double paneWidth = treePane.getWidth();
-        
-        // Calculate horizontal spacing between nodes
-        double horizontalSpacing = paneWidth / (maxNodesInLevel + 1);
-        
-        // Calculate starting X coordinate (centered alignment)
-        double startX = (paneWidth - (maxNodesInLevel * horizontalSpacing)) / 2;
-        
-        // Calculate final X coordinate
-        return startX + (positionInLevel * horizontalSpacing) + (horizontalSpacing / 2);
-    }
-
-    private double calculateHeapNodeY(int heapIndex) {
-        // Calculate level of heap tree
-        int level = (int) (Math.log(heapIndex + 1) / Math.log(2));
-        
-        // Vertical spacing between levels
-        int levelHeight = 80;
-        
-        // Starting Y coordinate
-        double startY = 50;
-        
-        // Calculate final Y coordinate
-        return startY + (level * levelHeight);
-    }
-
-    private void rebuildDataArray() {
-        // Get all remaining values before clearing
-        List<Integer> remainingValues = new ArrayList<>();
-        for (Map.Entry<Integer, Label> entry : dataArrayLabels.entrySet()) {
-            remainingValues.add(Integer.parseInt(entry.getValue().getText()));
-        }
-        
-        // Clear the container and maps
-        dataArrayContainer.getChildren().clear();
-        dataArrayCircles.clear();
-        dataArrayLabels.clear();
-        
-        // Rebuild the display
-        for (int i = 0; i < remainingValues.size(); i++) {
-            Circle circle = new Circle(20);
-            circle.setFill(Color.LIGHTBLUE);
-            circle.setStroke(Color.BLACK);
-            
-            Label label = new Label(String.valueOf(remainingValues.get(i)));
-            label.setStyle("-fx-font-weight: bold;");
-            
-            StackPane stackPane = new StackPane();
-            stackPane.getChildren().addAll(circle, label);
-            stackPane.setStyle("-fx-padding: 5;");
-            
-            dataArrayCircles.put(i, circle);
-            dataArrayLabels.put(i, label);
-            dataArrayContainer.getChildren().add(stackPane);
-        }
-    }
-
     private void drawTree() {
-        if (steps == null || steps.isEmpty() || currentStep >= steps.size()) {
-            System.out.println("Invalid step state: steps=" + (steps == null ? "null" : steps.size()) + ", currentStep=" + currentStep);
-            if (steps != null && !steps.isEmpty()) {
-                currentStep = steps.size() - 1;
+        if (operations == null || currentStep >= totalSteps()) {
+            System.out.println("Invalid step state: steps=" + totalSteps() + ", currentStep=" + currentStep);
+            if (operations != null) {
+                currentStep = totalSteps() - 1;
                 updateNavigationButtons();
             }
             return;
         }
-        treePane.getChildren().clear();
-        nodeCircles = new HashMap<>();
-        nodeLabels = new HashMap<>();
-        int[] currentArray = steps.get(currentStep);
-        if (currentArray == null) {
-            System.out.println("Current array is null at step " + currentStep);
-            return;
+        // Rebuild the array state of the current step from the operation log
+        cursor.seek(currentStep);
+        int[] currentArray = cursor.heap();
+        int heapSize = cursor.heapSize();
+        // The canvas repaints only the slots the cursor wrote since the last draw, when they are known
+        boolean changesTracked = cursor.drainChanges(canvasRenderer::markChanged);
+        updateDataArrayView();
+        // Large heaps are drawn onto a single canvas instead of per-node scene-graph objects
+        canvasActive = useCanvasRenderer();
+        if (canvasActive) {
+            if (!treePane.getChildren().contains(canvasRenderer.getCanvas())) {
+                treePane.getChildren().setAll(canvasRenderer.getCanvas());
+                changesTracked = false;
+            }
+            if (!changesTracked) {
+                canvasRenderer.invalidate();
+            }
+            canvasRenderer.render(currentArray, heapSize, treeNodeFill(), treeLineColor());
+        } else {
+            if (!treePane.getChildren().contains(treeNodeLayer)) {
+                treePane.getChildren().setAll(treeEdgeLayer, treeNodeLayer);
+            }
+            updateTreeNodes(currentArray, heapSize, treeNodeFill(), treeLineColor());
         }
         // Step-by-step message
         if (currentStep < maxHeapLastStepIndex) {
             phaseLabel.setText("Building Max Heap");
-            statusLabel.setText(String.format("Adding data to Max Heap... (%d/%d)", currentArray.length, inputArrayLength));
+            statusLabel.setText(String.format("Adding data to Max Heap... (%d/%d)", heapSize, inputArrayLength));
         } else if (currentStep == maxHeapLastStepIndex) {
             phaseLabel.setText("Max Heap Complete");
             statusLabel.setText("Max Heap construction complete. Starting sort...");
-            dataArrayContainer.getChildren().clear();
-            dataArrayCircles.clear();
-            dataArrayLabels.clear();
-            highlightMaxHeapComplete(() -> {
-                currentStep++;
-                updateNavigationButtons();
-                drawTree();
-            });
-            return;
-        } else if (currentStep > maxHeapLastStepIndex && currentStep < steps.size() - 1) {
-            phaseLabel.setText("Sorting");
-            statusLabel.setText(String.format("Sorting... (Step %d / %d)", currentStep - maxHeapLastStepIndex, steps.size() - maxHeapLastStepIndex));
+            highlightMaxHeapComplete(this::finishStep);
+        } else if (currentStep > maxHeapLastStepIndex && currentStep < totalSteps() - 1) {
+            phaseLabel.setText(isTopK() ? "Top-k Extraction" : "Sorting");
+            statusLabel.setText(String.format("%s... (Step %d / %s)", sortingText(), currentStep - maxHeapLastStepIndex, stepCountText(totalSteps() - maxHeapLastStepIndex)));
+        } else if (traceGenerating) {
+            statusLabel.setText(String.format("Generating steps... (Step %d / %s)", currentStep + 1, stepCountText(totalSteps())));
+        } else if (!traceComplete) {
+            statusLabel.setText(String.format("Trace generation cancelled after %d steps.", totalSteps()));
         } else {
-            phaseLabel.setText("Sort Complete");
-            statusLabel.setText("Sorting complete!");
-        }
-        int nodeRadius = 25;
-        int levelHeight = 80;
-        int treeHeight = 0;
-        int totalNodes = 0;
-        while (totalNodes < currentArray.length) {
-            totalNodes += (int) Math.pow(2, treeHeight);
-            treeHeight++;
-        }
-        int maxNodesInLevel = (int) Math.pow(2, treeHeight - 1);
-        double paneWidth = treePane.getWidth();
-        double horizontalSpacing = paneWidth / (maxNodesInLevel + 1);
-        double startY = 50;
-        for (int level = 0; level < treeHeight; level++) {
-            int nodesInLevel = (int) Math.pow(2, level);
-            double levelWidth = nodesInLevel * horizontalSpacing;
-            double levelStartX = (paneWidth - levelWidth) / 2 + horizontalSpacing / 2;
-            for (int nodeIndex = 0; nodeIndex < nodesInLevel; nodeIndex++) {
-                int index = (int) Math.pow(2, level) - 1 + nodeIndex;
-                if (index >= currentArray.length) break;
-                double x = levelStartX + nodeIndex * horizontalSpacing;
-                double y = startY + level * levelHeight;
-                Circle circle = new Circle(x, y, nodeRadius);
-                if (currentStep < maxHeapLastStepIndex) {
-                    circle.setFill(Color.LIGHTBLUE);
-                } else if (currentStep == maxHeapLastStepIndex) {
-                    circle.setFill(Color.GREEN);
-                } else {
-                    circle.setFill(Color.LIGHTGREEN);
-                }
-                circle.setStroke(Color.BLACK);
-                nodeCircles.put(index, circle);
-                Label valueLabel = new Label(String.valueOf(currentArray[index]));
-                valueLabel.setLayoutX(x - 10);
-                valueLabel.setLayoutY(y - 10);
-                nodeLabels.put(index, valueLabel);
-                treePane.getChildren().addAll(circle, valueLabel);
-                if (level > 0) {
-                    int parentIndex = (index - 1) / 2;
-                    if (parentIndex >= 0 && parentIndex < currentArray.length) {
-                        Circle parentCircle = nodeCircles.get(parentIndex);
-                        if (parentCircle != null) {
-                            Line line = new Line();
-                            line.setStartX(parentCircle.getCenterX());
-                            line.setStartY(parentCircle.getCenterY() + nodeRadius);
-                            line.setEndX(x);
-                            line.setEndY(y - nodeRadius);
-                            if (currentStep < maxHeapLastStepIndex) {
-                                line.setStroke(Color.GRAY);
-                            } else if (currentStep == maxHeapLastStepIndex) {
-                                line.setStroke(Color.GREEN);
-                            } else {
-                                line.setStroke(Color.DARKGREEN);
-                            }
-                            treePane.getChildren().add(line);
-                        }
-                    }
-                }
+            phaseLabel.setText(isTopK() ? "Top-k Complete" : "Sort Complete");
+            statusLabel.setText(String.format("%s complete! (%s, %s)",
+                isTopK() ? String.format("Top %d of %d", traceResultSize, inputArrayLength) : "Sorting",
+                traceBuildStrategy + ", " + traceSiftDownStrategy + " sift-down", sortStats));
+        }
+    }
+
+    private void updateTreeNodes(int[] heap, int heapSize, Color fill, Color lineColor) {
+        // Undo what swap and highlight animations did to node transforms and strokes
+        for (int i = animatedTreeNodes.nextSetBit(0); i >= 0 && i < nodeCircles.length; i = animatedTreeNodes.nextSetBit(i + 1)) {
+            Circle circle = nodeCircles[i];
+            circle.setTranslateX(0);
+            circle.setTranslateY(0);
+            circle.setScaleX(1.0);
+            circle.setScaleY(1.0);
+            circle.setOpacity(1.0);
+            circle.setStroke(Color.BLACK);
+            circle.setStrokeWidth(1);
+            nodeLabels[i].setTranslateX(0);
+            nodeLabels[i].setTranslateY(0);
+        }
+        animatedTreeNodes.clear();
+
+        if (nodeCircles.length < heapSize) {
+            int oldLength = nodeCircles.length;
+            nodeCircles = Arrays.copyOf(nodeCircles, heapSize);
+            nodeLabels = Arrays.copyOf(nodeLabels, heapSize);
+            nodeLines = Arrays.copyOf(nodeLines, heapSize);
+            nodeValues = Arrays.copyOf(nodeValues, heapSize);
+            for (int i = oldLength; i < heapSize; i++) {
+                createTreeNode(i);
+            }
+        }
+
+        // Node positions only change when the tree gains or loses a level, the arity changes or the pane is resized
+        updateTreeLayout(heapSize);
+        boolean relayout = treeLayout.version() != treeLayoutVersion;
+        treeLayoutVersion = treeLayout.version();
+
+        for (int i = 0; i < heapSize; i++) {
+            Circle circle = nodeCircles[i];
+            boolean shown = i < treeNodeCount;
+            if (relayout || !shown) {
+                positionTreeNode(i);
+            }
+            if (!shown || nodeValues[i] != heap[i]) {
+                nodeValues[i] = heap[i];
+                nodeLabels[i].setText(String.valueOf(heap[i]));
+            }
+            if (circle.getFill() != fill) {
+                circle.setFill(fill);
             }
+            if (nodeLines[i] != null && nodeLines[i].getStroke() != lineColor) {
+                nodeLines[i].setStroke(lineColor);
+            }
+            if (!shown) {
+                setTreeNodeVisible(i, true);
+            }
+        }
+        for (int i = heapSize; i < treeNodeCount; i++) {
+            setTreeNodeVisible(i, false);
+        }
+        treeNodeCount = heapSize;
+    }
+
+    private void createTreeNode(int index) {
+        Circle circle = new Circle(HeapLayout.NODE_RADIUS);
+        circle.setStroke(Color.BLACK);
+        Label valueLabel = new Label();
+        nodeCircles[index] = circle;
+        nodeLabels[index] = valueLabel;
+        treeNodeLayer.getChildren().addAll(circle, valueLabel);
+        if (index > 0) {
+            Line line = new Line();
+            nodeLines[index] = line;
+            treeEdgeLayer.getChildren().add(line);
+        }
+        setTreeNodeVisible(index, false);
+    }
+
+    // Lay the tree out for a heap of the given size; a no-op unless its height, shape or the pane width changed
+    private void updateTreeLayout(int heapSize) {
+        treeLayout.update(traceShape, traceShape.levelCount(heapSize), treePane.getWidth(), inputArrayLength);
+    }
+
+    private void positionTreeNode(int index) {
+        double x = treeLayout.x(index);
+        double y = treeLayout.y(index);
+        nodeCircles[index].setCenterX(x);
+        nodeCircles[index].setCenterY(y);
+        nodeLabels[index].setLayoutX(x - 10);
+        nodeLabels[index].setLayoutY(y - 10);
+        Line line = nodeLines[index];
+        if (line != null) {
+            int parent = traceShape.parent(index);
+            line.setStartX(treeLayout.x(parent));
+            line.setStartY(treeLayout.y(parent) + HeapLayout.NODE_RADIUS);
+            line.setEndX(x);
+            line.setEndY(y - HeapLayout.NODE_RADIUS);
         }
     }
 
+    private void setTreeNodeVisible(int index, boolean visible) {
+        nodeCircles[index].setVisible(visible);
+        nodeLabels[index].setVisible(visible);
+        if (nodeLines[index] != null) {
+            nodeLines[index].setVisible(visible);
+        }
+    }
+
+    private boolean hasTreeNode(int index) {
+        return !canvasActive && index >= 0 && index < treeNodeCount;
+    }
+
+    private boolean useCanvasRenderer() {
+        TreeRenderMode mode = renderModeChoice.getValue();
+        if (mode == TreeRenderMode.AUTO) {
+            return inputArrayLength > AUTO_CANVAS_THRESHOLD;
+        }
+        return mode == TreeRenderMode.CANVAS || inputArrayLength > MAX_SCENE_GRAPH_NODES;
+    }
+
+    private Color treeNodeFill() {
+        if (currentStep < maxHeapLastStepIndex) {
+            return Color.LIGHTBLUE;
+        } else if (currentStep == maxHeapLastStepIndex) {
+            return Color.GREEN;
+        }
+        return Color.LIGHTGREEN;
+    }
+
+    private Color treeLineColor() {
+        if (currentStep < maxHeapLastStepIndex) {
+            return Color.GRAY;
+        } else if (currentStep == maxHeapLastStepIndex) {
+            return Color.GREEN;
+        }
+        return Color.DARKGREEN;
+    }
+
+    private void renderCanvasTree() {
+        if (canvasActive && cursor != null) {
+            canvasRenderer.render(cursor.heap(), cursor.heapSize(), treeNodeFill(), treeLineColor());
+        }
+    }
+
+    private void highlightCanvasNodes(int index1, int index2, Color color, Runnable onComplete) {
+        if (canvasRenderer.isRendered(index1) && canvasRenderer.isRendered(index2)) {
+            canvasRenderer.highlight(index1, color);
+            canvasRenderer.highlight(index2, color);
+            Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(animationDuration), e -> {
+                if (onComplete != null) {
+                    onComplete.run();
+                }
+            }));
+            timeline.play();
+        } else if (onComplete != null) {
+            onComplete.run();
+        }
+    }
+
+    // Completion of a step transition: advance and draw the new state
+    private void finishStep() {
+        perfMonitor.stepFinished();
+        currentStep++;
+        updateNavigationButtons();
+        drawTree();
+    }
+
     private void showPreviousStep() {
         if (currentStep > 0) {
+            stopMaxHeapHighlight();
             currentStep--;
             updateNavigationButtons();
             drawTree();
+            stopMaxHeapHighlight();
         }
     }
 
     private void showNextStep() {
-        if (currentStep < steps.size() - 1) {
-            int[] prevArray = steps.get(currentStep);
-            int[] nextArray = steps.get(currentStep + 1);
-            
-            // Max Heap Construction Phase
-            if (currentStep < maxHeapLastStepIndex) {
-                phaseLabel.setText("Building Max Heap");
-                statusLabel.setText(String.format("Adding data to Max Heap... (%d/%d)", nextArray.length, inputArrayLength));
-                
-                // When new node is added
-                if (prevArray.length < nextArray.length) {
-                    int newIndex = prevArray.length;
-                    
-                    // Handle empty data array case
-                    if (dataArrayContainer.getChildren().isEmpty()) {
-                        currentStep++;
-                        updateNavigationButtons();
-                        drawTree();
-                        return;
-                    }
-
-                    // Find index of value to add in data array
-                    int valueToAdd = nextArray[newIndex];
-                    int foundIndex = -1;
-                    for (int i = 0; i < dataArrayContainer.getChildren().size(); i++) {
-                        Label label = (Label) ((StackPane) dataArrayContainer.getChildren().get(i)).getChildren().get(1);
-                        if (label.getText().equals(String.valueOf(valueToAdd))) {
-                            foundIndex = i;
-                            break;
-                        }
-                    }
-                    
-                    // Check if foundIndex is within valid range
-                    if (foundIndex >= 0 && foundIndex < dataArrayContainer.getChildren().size()) {
-                        int dataArrayIndex = foundIndex;
-                        animateDataToHeap(dataArrayIndex, newIndex, () -> {
-                            highlightNewNode(newIndex, () -> {
-                                int parentIndex = (newIndex - 1) / 2;
-                                if (parentIndex >= 0) {
-                                    phaseLabel.setText("Comparing with Parent");
-                                    statusLabel.setText("Comparing new node with parent node...");
-                                    highlightComparingNodesForSwap(newIndex, parentIndex, () -> {
-                                        currentStep++;
-                                        updateNavigationButtons();
-                                        drawTree();
-                                    });
-                                } else {
-                                    currentStep++;
-                                    updateNavigationButtons();
-                                    drawTree();
-                                }
-                            });
-                        });
-                    } else {
-                        // Proceed to next step if valid index not found
-                        currentStep++;
-                        updateNavigationButtons();
-                        drawTree();
-                    }
-                    return;
-                }
-                
-                // Node swap phase
-                for (int i = 0; i < prevArray.length; i++) {
-                    if (prevArray[i] != nextArray[i]) {
-                        for (int j = 0; j < prevArray.length; j++) {
-                            if (j != i && prevArray[j] != nextArray[j]) {
-                                final int finalI = i;
-                                final int finalJ = j;
-                                highlightComparingNodesForSwap(finalI, finalJ, () -> {
-                                    animateSwap(finalI, finalJ, () -> {
-                                        currentStep++;
-                                        updateNavigationButtons();
-                                        drawTree();
-                                    });
-                                });
-                                return;
-                            }
-                        }
-                    }
-                }
-                
-                // Comparison only case
-                highlightComparingNodes(prevArray, nextArray, () -> {
-                    currentStep++;
-                    updateNavigationButtons();
-                    drawTree();
-                });
-                return;
+        if (currentStep == maxHeapLastStepIndex) {
+            // The Max Heap highlight started by drawTree advances past this step by itself,
+            // unless the step was reached by seeking or stepping back
+            if (maxHeapHighlight == null) {
+                perfMonitor.stepStarted();
+                finishStep();
             }
-            
-            // Max Heap Completion Phase
-            if (currentStep == maxHeapLastStepIndex) {
-                phaseLabel.setText("Max Heap Complete");
-                statusLabel.setText("Max Heap construction complete. Starting sort...");
-                dataArrayContainer.getChildren().clear();
-                dataArrayCircles.clear();
-                dataArrayLabels.clear();
-                highlightMaxHeapComplete(() -> {
-                    currentStep++;
-                    updateNavigationButtons();
-                    drawTree();
-                });
-                return;
-            }
-            
-            // Sorting Phase
-            if (currentStep > maxHeapLastStepIndex) {
-                phaseLabel.setText("Sorting");
-                statusLabel.setText(String.format("Sorting... (Step %d / %d)", 
-                    currentStep - maxHeapLastStepIndex, 
-                    steps.size() - maxHeapLastStepIndex - 1));
-                
-                // Initial sorting step
-                if (currentStep == maxHeapLastStepIndex + 1) {
-                    phaseLabel.setText("Initial Sort");
-                    statusLabel.setText("Swapping root node (max value) with last node");
-                    highlightComparingNodesForSwap(0, prevArray.length - 1, () -> {
-                        animateSwap(0, prevArray.length - 1, () -> {
-                            currentStep++;
-                            updateNavigationButtons();
-                            drawTree();
-                        });
-                    });
-                    return;
-                }
-                
-                // Check for node swap
-                boolean foundSwap = false;
-                for (int i = 0; i < prevArray.length; i++) {
-                    if (prevArray[i] != nextArray[i]) {
-                        for (int j = 0; j < prevArray.length; j++) {
-                            if (j != i && prevArray[j] != nextArray[j]) {
-                                final int finalI = i;
-                                final int finalJ = j;
-                                highlightComparingNodesForSwap(finalI, finalJ, () -> {
-                                    animateSwap(finalI, finalJ, () -> {
-                                        currentStep++;
-                                        updateNavigationButtons();
-                                        drawTree();
-                                    });
-                                });
-                                foundSwap = true;
-                                return;
-                            }
-                        }
-                    }
-                }
-                
-                // Comparison only case
-                if (!foundSwap) {
-                    highlightComparingNodes(prevArray, nextArray, () -> {
-                        currentStep++;
-                        updateNavigationButtons();
-                        drawTree();
-                    });
-                }
+            return;
+        }
+        if (currentStep < totalSteps() - 1) {
+            perfMonitor.stepStarted();
+            // The operation applied between the current step and the next one
+            cursor.seek(currentStep);
+            StepType type = operations.type(currentStep);
+            int indexA = operations.indexA(currentStep);
+            int indexB = operations.indexB(currentStep);
+            showStepMessage(type, indexA);
+
+            switch (type) {
+                case INSERT:
+                    // Data cells are addressed by input index, so the new node's cell is found directly
+                    animateDataToHeap(indexA, indexA, () -> highlightNewNode(indexA, this::finishStep));
+                    break;
+                case COMPARE:
+                    highlightComparingNodes(indexA, indexB, this::finishStep);
+                    break;
+                case SWAP:
+                case EXTRACT:
+                    highlightComparingNodesForSwap(indexA, indexB, () -> animateSwap(indexA, indexB, this::finishStep));
+                    break;
+                default:
+                    // HEAP_BUILT and PLACE_SORTED show up once the next step is drawn
+                    finishStep();
+                    break;
             }
+        } else if (traceComplete) {
+            phaseLabel.setText(isTopK() ? "Top-k Complete" : "Sort Complete");
+            statusLabel.setText(isTopK()
+                ? String.format("Top %d of %d complete!", traceResultSize, inputArrayLength)
+                : "Sorting complete!");
+        }
+    }
+
+    private void showStepMessage(StepType type, int indexA) {
+        if (currentStep < maxHeapLastStepIndex) {
+            phaseLabel.setText(type == StepType.COMPARE ? "Comparing Nodes" : "Building Max Heap");
+            statusLabel.setText(String.format("Adding data to Max Heap... (%d/%d)",
+                type == StepType.INSERT ? indexA + 1 : cursor.heapSize(), inputArrayLength));
+        } else if (type == StepType.EXTRACT) {
+            phaseLabel.setText("Extracting Max");
+            statusLabel.setText("Swapping root node (max value) with last node");
         } else {
-            phaseLabel.setText("Sort Complete");
-            statusLabel.setText("Sorting complete!");
+            phaseLabel.setText(type == StepType.PLACE_SORTED ? "Reconstructing Data Array" : "Sorting");
+            statusLabel.setText(String.format("%s... (Step %d / %s)", sortingText(),
+                currentStep - maxHeapLastStepIndex,
+                stepCountText(totalSteps() - maxHeapLastStepIndex - 1)));
         }
     }
 
     private void animateSwap(int index1, int index2, Runnable onComplete) {
-        if (nodeCircles == null || !nodeCircles.containsKey(index1) || !nodeCircles.containsKey(index2)) {
+        if (!hasTreeNode(index1) || !hasTreeNode(index2)) {
             if (onComplete != null) {
                 onComplete.run();
             }
             return;
         }
 
-        Circle circle1 = nodeCircles.get(index1);
-        Circle circle2 = nodeCircles.get(index2);
-        Label label1 = nodeLabels.get(index1);
-        Label label2 = nodeLabels.get(index2);
+        Circle circle1 = nodeCircles[index1];
+        Circle circle2 = nodeCircles[index2];
+        Label label1 = nodeLabels[index1];
+        Label label2 = nodeLabels[index2];
+        animatedTreeNodes.set(index1);
+        animatedTreeNodes.set(index2);
 
         // Highlight comparing nodes with yellow color
         circle1.setFill(Color.YELLOW);
@@ -816,31 +1254,33 @@ public class HeapSortController {
         tt4.setToX(x1 - x2);
         tt4.setToY(y1 - y2);
 
-        // Restore colors and execute callback after animation completes
-        tt1.setOnFinished(e -> {
+        // Restore colors and execute callback once all four moves have finished,
+        // so the next step can reset the reused nodes' translation
+        ParallelTransition swapTransition = new ParallelTransition(tt1, tt2, tt3, tt4);
+        swapTransition.setOnFinished(e -> {
             circle1.setFill(Color.LIGHTBLUE);
             circle2.setFill(Color.LIGHTBLUE);
             if (onComplete != null) {
                 onComplete.run();
             }
         });
-
-        tt1.play();
-        tt2.play();
-        tt3.play();
-        tt4.play();
+        swapTransition.play();
     }
 
     private void highlightComparingNodesForSwap(int index1, int index2, Runnable onComplete) {
-        if (nodeCircles == null || !nodeCircles.containsKey(index1) || !nodeCircles.containsKey(index2)) {
+        if (canvasActive) {
+            highlightCanvasNodes(index1, index2, Color.RED, onComplete);
+            return;
+        }
+        if (!hasTreeNode(index1) || !hasTreeNode(index2)) {
             if (onComplete != null) {
                 onComplete.run();
             }
             return;
         }
 
-        Circle circle1 = nodeCircles.get(index1);
-        Circle circle2 = nodeCircles.get(index2);
+        Circle circle1 = nodeCircles[index1];
+        Circle circle2 = nodeCircles[index2];
 
         // Highlight comparing nodes with red color
         circle1.setFill(Color.RED);
@@ -855,55 +1295,23 @@ public class HeapSortController {
         timeline.play();
     }
 
-    private void highlightComparingNodes(int[] prevArray, int[] nextArray, Runnable onComplete) {
-        // Find comparing nodes in current step
-        int currentIndex = -1;
-        final int parentIndex;
-        
-        // Comparing in heap construction step
-        if (prevArray.length < nextArray.length) {
-            currentIndex = prevArray.length;
-            parentIndex = (currentIndex - 1) / 2;
-        } 
-        // Comparing in heap sort step
-        else {
-            parentIndex = -1;
-            for (int i = 0; i < prevArray.length; i++) {
-                int left = 2 * i + 1;
-                int right = 2 * i + 2;
-                if (left < prevArray.length && prevArray[left] != nextArray[left]) {
-                    currentIndex = i;
-                    break;
-                }
-                if (right < prevArray.length && prevArray[right] != nextArray[right]) {
-                    currentIndex = i;
-                    break;
-                }
-            }
+    // Compare steps name two nodes, or the same node twice when its sift stops there
+    private void highlightComparingNodes(int index1, int index2, Runnable onComplete) {
+        if (canvasActive) {
+            highlightCanvasNodes(index1, index2, Color.ORANGE, onComplete);
+            return;
         }
-
-        final int finalCurrentIndex = currentIndex;
-        if (finalCurrentIndex >= 0 && nodeCircles != null) {
-            Circle currentCircle = nodeCircles.get(finalCurrentIndex);
-            if (currentCircle != null) {
-                currentCircle.setFill(Color.ORANGE);
-            }
-            
-            if (parentIndex >= 0) {
-                Circle parentCircle = nodeCircles.get(parentIndex);
-                if (parentCircle != null) {
-                    parentCircle.setFill(Color.ORANGE);
-                }
-            }
+        if (hasTreeNode(index1) && hasTreeNode(index2)) {
+            Circle circle1 = nodeCircles[index1];
+            Circle circle2 = nodeCircles[index2];
+            circle1.setFill(Color.ORANGE);
+            circle2.setFill(Color.ORANGE);
 
             // Restore colors after animation completes
+            Color fill = treeNodeFill();
             Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(animationDuration), e -> {
-                if (currentCircle != null) {
-                    currentCircle.setFill(Color.LIGHTBLUE);
-                }
-                if (parentIndex >= 0 && nodeCircles.get(parentIndex) != null) {
-                    nodeCircles.get(parentIndex).setFill(Color.LIGHTBLUE);
-                }
+                circle1.setFill(fill);
+                circle2.setFill(fill);
                 if (onComplete != null) {
                     onComplete.run();
                 }
@@ -917,9 +1325,10 @@ public class HeapSortController {
     }
 
     private void highlightNewNode(int index, Runnable onComplete) {
-        if (nodeCircles != null && nodeCircles.containsKey(index)) {
-            Circle circle = nodeCircles.get(index);
+        if (hasTreeNode(index)) {
+            Circle circle = nodeCircles[index];
             if (circle != null) {
+                animatedTreeNodes.set(index);
                 // Initial state setting
                 circle.setFill(Color.HOTPINK);
                 circle.setStroke(Color.DEEPPINK);
@@ -966,26 +1375,42 @@ public class HeapSortController {
 
     private void highlightMaxHeapComplete(Runnable onComplete) {
         // Highlight all nodes in green
-        for (Circle circle : nodeCircles.values()) {
-            circle.setFill(Color.GREEN);
+        for (int i = 0; i < treeNodeCount; i++) {
+            nodeCircles[i].setFill(Color.GREEN);
         }
         
         // Restore original colors after 1 second
+        stopMaxHeapHighlight();
         Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
-            for (Circle circle : nodeCircles.values()) {
-                circle.setFill(Color.LIGHTBLUE);
+            maxHeapHighlight = null;
+            for (int i = 0; i < treeNodeCount; i++) {
+                nodeCircles[i].setFill(Color.LIGHTBLUE);
             }
             if (onComplete != null) {
                 onComplete.run();
             }
         }));
+        maxHeapHighlight = timeline;
         timeline.play();
     }
 
+    // Drops a pending Max Heap highlight so it cannot advance a step the user has since left
+    private void stopMaxHeapHighlight() {
+        if (maxHeapHighlight != null) {
+            maxHeapHighlight.stop();
+            maxHeapHighlight = null;
+        }
+    }
+
     private void updateNavigationButtons() {
+        if (traceGenerating && traceTask != null) {
+            // Let the worker record a bounded number of steps past the one on screen
+            traceTask.showingStep(currentStep);
+        }
+        updateStepSlider();
         prevButton.setDisable(currentStep <= 0 || isAutoPlaying);
-        nextButton.setDisable(currentStep >= steps.size() - 1 || isAutoPlaying);
-        statusLabel.setText(String.format("Step %d / %d", currentStep + 1, steps.size()));
+        nextButton.setDisable(currentStep >= totalSteps() - 1 || isAutoPlaying);
+        statusLabel.setText(String.format("Step %d / %s", currentStep + 1, stepCountText(totalSteps())));
     }
 
     private void showError(String message) {
@@ -1013,31 +1438,4 @@ public class HeapSortController {
         }
         return sb.toString();
     }
-
-    private void updateDataArrayWithSortedData(int[] sortedArray, int currentIndex) {
-        dataArrayContainer.getChildren().clear();
-        dataArrayCircles.clear();
-        dataArrayLabels.clear();
-        
-        for (int i = 0; i < sortedArray.length; i++) {
-            Circle circle = new Circle(20);
-            if (i < currentIndex) {
-                circle.setFill(Color.GREEN);  // Sorted data is shown in green
-            } else {
-                circle.setFill(Color.LIGHTBLUE);  // Unsorted data is shown in blue
-            }
-            circle.setStroke(Color.BLACK);
-            
-            Label label = new Label(String.valueOf(sortedArray[i]));
-            label.setStyle("-fx-font-weight: bold;");
-            
-            StackPane stackPane = new StackPane();
-            stackPane.getChildren().addAll(circle, label);
-            stackPane.setStyle("-fx-padding: 5;");
-            
-            dataArrayCircles.put(i, circle);
-            dataArrayLabels.put(i, label);
-            dataArrayContainer.getChildren().add(stackPane);
-        }
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,423 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * Headless heap sort: builds a max heap of the configured arity (2 for a
+ * binary heap, 4 or 8 for shallower heaps whose children share cache lines)
+ * with the selected {@link HeapBuildStrategy}, repeatedly extracts the root,
+ * and finally reports the sorted data. Every step is emitted to a {@link HeapSortListener};
+ * nothing here depends on JavaFX, so the engine can be run and profiled in a
+ * plain JVM.
+ *
+ * <p>The algorithm is written as a resumable state machine: after
+ * {@link #start(int[])}, each call to {@link #step()} performs the work up to
+ * and including the next compare, swap, insert, extract or place event and
+ * then returns, so callers can generate a trace on demand. {@link #sort(int[])}
+ * simply runs the machine to completion.
+ *
+ * <p>The sort phase sifts the new root down with the selected
+ * {@link SiftDownStrategy}. The bottom-up variant emits the same compare and
+ * swap events, in a different order: compares of sibling pairs on the way
+ * down, compares against the root on the way back up, then the swaps that
+ * move the root to its place.
+ *
+ * <p>With a top-k limit set, the sort phase stops after k extractions: the k
+ * largest values then sit in ascending order at the end of the heap array and
+ * only those are reported as placed, the largest last.
+ */
+public class HeapSortEngine {
+    private enum State {
+        INSERT,         // place the next input element into the heap
+        SIFT_UP,        // compare the sifted node with its parent
+        SIFT_DOWN,      // compare the sifted node with its children
+        SWAP,           // perform the swap decided by the last compare
+        BOTTOM_UP_DESCEND, // follow the larger child one level down the sift path
+        BOTTOM_UP_CLIMB,   // compare a sift path node with the sifted root on the way back up
+        BOTTOM_UP_SWAP,    // swap the sifted root one level down the path towards its place
+        HEAPIFY_NEXT,   // start sifting down the next internal node (Floyd)
+        HEAP_BUILT,     // report the completed Max Heap
+        EXTRACT_MARK,   // mark root and last node before extracting the root
+        EXTRACT,        // swap root (max value) with last node
+        PLACE,          // report the next sorted element
+        DONE
+    }
+
+    private HeapSortListener listener = HeapSortListener.NO_OP;
+    private HeapBuildStrategy buildStrategy = HeapBuildStrategy.INSERTION;
+    private int arity = 2;
+    private SiftDownStrategy siftDownStrategy = SiftDownStrategy.CLASSIC;
+    private int topK;           // number of largest values to extract, 0 for a full sort
+    private final HeapSortStats stats = new HeapSortStats();
+    // Counters of the phase in progress, added to the stats when it ends
+    private HeapSortPhase phase;
+    private long phaseStart;
+    private long comparisons;
+    private long swaps;
+    private long reads;
+    private long writes;
+    private int siftDepth;      // levels the current sift has moved its element
+
+    // Resumable state of the current run
+    private int[] input;
+    private int[] heap;
+    private State state = State.DONE;
+    private State afterSift;    // where to continue once the current sift finishes
+    private int buildIndex;     // next input element to insert
+    private int heapifyIndex;   // next internal node to sift down (Floyd)
+    private int lastIndex;      // last node of the unsorted heap
+    private int placeIndex;     // next element to report as sorted
+    private int resultStart;    // first heap index of the sorted result
+    private int siftIndex;      // node being sifted
+    private int siftSize;       // heap size the sift-down is bounded by
+    private int swapIndex;      // node the pending swap exchanges siftIndex with
+    // Bottom-up sift: nodes from the root down along the larger children, at most one per level
+    private final int[] siftPath = new int[32];
+    private int siftPathLength;
+    private int siftTarget;     // path position the sifted root moves to
+    private int siftMove;       // path position of the sifted root while it is swapped down
+
+    public void setListener(HeapSortListener listener) {
+        this.listener = listener == null ? HeapSortListener.NO_OP : listener;
+    }
+
+    public void setBuildStrategy(HeapBuildStrategy buildStrategy) {
+        this.buildStrategy = buildStrategy;
+    }
+
+    public HeapBuildStrategy getBuildStrategy() {
+        return buildStrategy;
+    }
+
+    // Number of children per heap node
+    public void setArity(int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2: " + arity);
+        }
+        this.arity = arity;
+    }
+
+    public int getArity() {
+        return arity;
+    }
+
+    // How the sort phase sifts the new root down
+    public void setSiftDownStrategy(SiftDownStrategy siftDownStrategy) {
+        this.siftDownStrategy = siftDownStrategy;
+    }
+
+    public SiftDownStrategy getSiftDownStrategy() {
+        return siftDownStrategy;
+    }
+
+    // Stop after extracting the k largest values; 0 (the default) means a full sort
+    public void setTopK(int topK) {
+        if (topK < 0) {
+            throw new IllegalArgumentException("Top-k count must not be negative: " + topK);
+        }
+        this.topK = topK;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    // Number of values the run reports as sorted: k for a top-k run, otherwise all of them
+    public int resultSize(int elementCount) {
+        return topK == 0 ? elementCount : Math.min(topK, elementCount);
+    }
+
+    // Counts of the last sort, per phase
+    public HeapSortStats getStats() {
+        return stats;
+    }
+
+    // Copy of the counters so far, including the phase in progress
+    public HeapSortStats snapshotStats() {
+        HeapSortStats snapshot = stats.copy();
+        if (state != State.DONE) {
+            snapshot.record(phase, comparisons, swaps);
+            snapshot.recordAccesses(phase, reads, writes, System.nanoTime() - phaseStart);
+        }
+        return snapshot;
+    }
+
+    public int[] sort(int[] input) {
+        start(input);
+        while (step()) {
+            // Run to completion
+        }
+        return heap;
+    }
+
+    // The k largest values of the input in ascending order; use sort for all of them
+    public int[] selectTop(int[] input, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Top-k count must be positive: " + k);
+        }
+        int previous = topK;
+        setTopK(k);
+        try {
+            sort(input);
+        } finally {
+            topK = previous;
+        }
+        return Arrays.copyOfRange(heap, resultStart, heap.length);
+    }
+
+    public void start(int[] input) {
+        this.input = input;
+        heap = new int[input.length];
+        stats.reset();
+        phase = HeapSortPhase.BUILD;
+        phaseStart = System.nanoTime();
+        comparisons = 0;
+        swaps = 0;
+        reads = 0;
+        writes = 0;
+        buildIndex = 0;
+        resultStart = input.length - resultSize(input.length);
+        placeIndex = resultStart;
+        lastIndex = input.length - 1;
+        state = State.INSERT;
+        listener.onPhaseStarted(HeapSortPhase.BUILD);
+    }
+
+    public boolean isFinished() {
+        return state == State.DONE;
+    }
+
+    // The heap array; fully sorted once the run is finished
+    public int[] getHeap() {
+        return heap;
+    }
+
+    /**
+     * Advances the sort by one event.
+     *
+     * @return false once the sort has finished and no event was emitted
+     */
+    public boolean step() {
+        while (true) {
+            switch (state) {
+                case INSERT:
+                    if (buildIndex == input.length) {
+                        if (buildStrategy == HeapBuildStrategy.FLOYD) {
+                            // Last internal node: the parent of the last element
+                            heapifyIndex = heap.length < 2 ? -1 : (heap.length - 2) / arity;
+                            state = State.HEAPIFY_NEXT;
+                        } else {
+                            state = State.HEAP_BUILT;
+                        }
+                        break;
+                    }
+                    heap[buildIndex] = input[buildIndex];
+                    writes++;
+                    listener.onInsert(buildIndex, input[buildIndex]);
+                    if (buildStrategy == HeapBuildStrategy.INSERTION) {
+                        // Compare new node with parent to maintain heap property
+                        siftIndex = buildIndex;
+                        siftDepth = 0;
+                        afterSift = State.INSERT;
+                        state = State.SIFT_UP;
+                    }
+                    buildIndex++;
+                    return true;
+
+                case HEAPIFY_NEXT:
+                    // Place all data first, then heapify every internal node from the bottom up
+                    if (heapifyIndex < 0) {
+                        state = State.HEAP_BUILT;
+                        break;
+                    }
+                    siftIndex = heapifyIndex--;
+                    siftSize = heap.length;
+                    siftDepth = 0;
+                    afterSift = State.HEAPIFY_NEXT;
+                    state = State.SIFT_DOWN;
+                    break;
+
+                case SIFT_UP:
+                    if (siftIndex == 0) {
+                        endSift();
+                        break;
+                    }
+                    int parent = (siftIndex - 1) / arity;
+                    comparisons++;
+                    reads += 2;
+                    listener.onCompare(siftIndex, parent);
+                    if (heap[siftIndex] > heap[parent]) {
+                        swapIndex = parent;
+                        state = State.SWAP;
+                    } else {
+                        endSift();
+                    }
+                    return true;
+
+                case SIFT_DOWN:
+                    // Restore heap property (heapify)
+                    int largest = siftIndex;
+                    long firstChild = (long) arity * siftIndex + 1;
+                    int childEnd = (int) Math.min(firstChild + arity, siftSize);
+                    for (int child = (int) Math.min(firstChild, siftSize); child < childEnd; child++) {
+                        comparisons++;
+                        reads += 2;
+                        if (heap[child] > heap[largest]) {
+                            largest = child;
+                        }
+                    }
+                    listener.onCompare(siftIndex, largest);
+                    if (largest != siftIndex) {
+                        swapIndex = largest;
+                        state = State.SWAP;
+                    } else {
+                        endSift();
+                    }
+                    return true;
+
+                case SWAP:
+                    swap(siftIndex, swapIndex);
+                    listener.onSwap(siftIndex, swapIndex);
+                    siftIndex = swapIndex;
+                    siftDepth++;
+                    state = afterSift == State.INSERT ? State.SIFT_UP : State.SIFT_DOWN;
+                    return true;
+
+                case HEAP_BUILT:
+                    endPhase(HeapSortPhase.BUILD);
+                    listener.onHeapBuilt();
+                    phase = HeapSortPhase.SORT;
+                    listener.onPhaseStarted(HeapSortPhase.SORT);
+                    state = State.EXTRACT_MARK;
+                    return true;
+
+                case EXTRACT_MARK:
+                    if (lastIndex <= 0 || lastIndex < resultStart) {
+                        endPhase(HeapSortPhase.SORT);
+                        phase = HeapSortPhase.RECONSTRUCT;
+                        listener.onPhaseStarted(HeapSortPhase.RECONSTRUCT);
+                        state = State.PLACE;
+                        break;
+                    }
+                    listener.onCompare(0, lastIndex);
+                    state = State.EXTRACT;
+                    return true;
+
+                case EXTRACT:
+                    // Swap root (max value) with last node, then sift the new root down
+                    swap(0, lastIndex);
+                    listener.onExtract(0, lastIndex);
+                    siftIndex = 0;
+                    siftSize = lastIndex;
+                    siftDepth = 0;
+                    lastIndex--;
+                    afterSift = State.EXTRACT_MARK;
+                    if (siftDownStrategy == SiftDownStrategy.BOTTOM_UP) {
+                        siftPath[0] = 0;
+                        siftPathLength = 1;
+                        state = State.BOTTOM_UP_DESCEND;
+                    } else {
+                        state = State.SIFT_DOWN;
+                    }
+                    return true;
+
+                case BOTTOM_UP_DESCEND:
+                    // Walk down to a leaf along the larger children, without comparing them to the sifted root
+                    int pathNode = siftPath[siftPathLength - 1];
+                    long firstPathChild = (long) arity * pathNode + 1;
+                    if (firstPathChild >= siftSize) {
+                        siftTarget = siftPathLength - 1;
+                        state = State.BOTTOM_UP_CLIMB;
+                        break;
+                    }
+                    int first = (int) firstPathChild;
+                    int siblingEnd = (int) Math.min(firstPathChild + arity, siftSize);
+                    int larger = first;
+                    for (int child = first + 1; child < siblingEnd; child++) {
+                        comparisons++;
+                        reads += 2;
+                        if (heap[child] > heap[larger]) {
+                            larger = child;
+                        }
+                    }
+                    siftPath[siftPathLength++] = larger;
+                    if (siblingEnd - first == 1) {
+                        break; // An only child needs no compare
+                    }
+                    listener.onCompare(first, larger == first ? first + 1 : larger);
+                    return true;
+
+                case BOTTOM_UP_CLIMB:
+                    // The root belongs at the deepest path node that is not smaller than it
+                    if (siftTarget == 0) {
+                        siftMove = 0;
+                        state = State.BOTTOM_UP_SWAP;
+                        break;
+                    }
+                    int climbNode = siftPath[siftTarget];
+                    comparisons++;
+                    reads += 2;
+                    listener.onCompare(climbNode, 0);
+                    if (heap[climbNode] < heap[0]) {
+                        siftTarget--;
+                    } else {
+                        siftMove = 0;
+                        state = State.BOTTOM_UP_SWAP;
+                    }
+                    return true;
+
+                case BOTTOM_UP_SWAP:
+                    // Each swap moves one path node up a level, as the classic sift would have
+                    if (siftMove == siftTarget) {
+                        endSift();
+                        break;
+                    }
+                    swap(siftPath[siftMove], siftPath[siftMove + 1]);
+                    listener.onSwap(siftPath[siftMove], siftPath[siftMove + 1]);
+                    siftMove++;
+                    siftDepth++;
+                    return true;
+
+                case PLACE:
+                    if (placeIndex == heap.length) {
+                        endPhase(HeapSortPhase.RECONSTRUCT);
+                        state = State.DONE;
+                        break;
+                    }
+                    reads++;
+                    // Reported by position within the result, which is the heap index for a full sort
+                    listener.onPlaced(placeIndex - resultStart, heap[placeIndex]);
+                    placeIndex++;
+                    return true;
+
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        swaps++;
+        reads += 2;
+        writes += 2;
+        int temp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = temp;
+    }
+
+    private void endSift() {
+        stats.recordSiftDepth(phase, siftDepth);
+        state = afterSift;
+    }
+
+    private void endPhase(HeapSortPhase phase) {
+        long now = System.nanoTime();
+        stats.record(phase, comparisons, swaps);
+        stats.recordAccesses(phase, reads, writes, now - phaseStart);
+        phaseStart = now;
+        comparisons = 0;
+        swaps = 0;
+        reads = 0;
+        writes = 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example;
+
+/**
+ * Application entry point. It does not extend {@code Application}, so the
+ * Java launcher does not start the JavaFX toolkit before {@code main} runs;
+ * {@code --cli} runs the headless {@link HeapSortCli} batch mode, anything
+ * else opens the visualizer.
+ */
+public class HeapSortLauncher {
+    public static void main(String[] args) {
+        if (HeapSortCli.isCliInvocation(args)) {
+            System.exit(HeapSortCli.run(args, System.in, System.out, System.err));
+        }
+        HeapSortVisualizer.main(args);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example;
+
+/**
+ * Receives the events emitted by {@link HeapSortEngine} while it sorts.
+ * All methods default to no-ops so subscribers only override what they need.
+ */
+public interface HeapSortListener {
+    HeapSortListener NO_OP = new HeapSortListener() { };
+
+    default void onPhaseStarted(HeapSortPhase phase) { }
+
+    default void onInsert(int index, int value) { }
+
+    default void onCompare(int index1, int index2) { }
+
+    default void onSwap(int index1, int index2) { }
+
+    default void onHeapBuilt() { }
+
+    default void onExtract(int rootIndex, int lastIndex) { }
+
+    default void onPlaced(int index, int value) { }
+}
@@ -0,0 +1,124 @@
+package com.example;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Holds the latest {@link HeapSortStats} of the visualizer's trace and
+ * publishes them through {@link HeapSortMetricsMXBean}. Updates come from the
+ * FX application thread and reads from JMX threads, so the state is swapped
+ * in as one immutable snapshot.
+ */
+public class HeapSortMetrics implements HeapSortMetricsMXBean {
+    public static final String OBJECT_NAME = "com.example:type=HeapSortMetrics";
+    private static final Logger LOGGER = Logger.getLogger(HeapSortMetrics.class.getName());
+
+    private volatile Snapshot snapshot = new Snapshot(new HeapSortStats(), HeapBuildStrategy.INSERTION, 2, 0, false);
+
+    /**
+     * Registers the bean with the platform MBean server; the visualizer keeps
+     * working without it if registration fails, and the failure is logged as
+     * a warning.
+     */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException ex) {
+            LOGGER.log(Level.WARNING, "Could not register metrics MBean " + OBJECT_NAME, ex);
+        }
+    }
+
+    // The stats must not be modified afterwards, e.g. a copy from HeapSortEngine.snapshotStats()
+    public void update(HeapSortStats stats, HeapBuildStrategy buildStrategy, int arity, int elementCount, boolean running) {
+        snapshot = new Snapshot(stats, buildStrategy, arity, elementCount, running);
+    }
+
+    public HeapSortStats getStats() {
+        return snapshot.stats;
+    }
+
+    @Override
+    public String getBuildStrategy() {
+        return snapshot.buildStrategy.toString();
+    }
+
+    @Override
+    public int getArity() {
+        return snapshot.arity;
+    }
+
+    @Override
+    public int getElementCount() {
+        return snapshot.elementCount;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return snapshot.running;
+    }
+
+    @Override
+    public long getTotalComparisons() {
+        return snapshot.stats.getTotalComparisons();
+    }
+
+    @Override
+    public long getTotalSwaps() {
+        return snapshot.stats.getTotalSwaps();
+    }
+
+    @Override
+    public long getTotalReads() {
+        return snapshot.stats.getTotalReads();
+    }
+
+    @Override
+    public long getTotalWrites() {
+        return snapshot.stats.getTotalWrites();
+    }
+
+    @Override
+    public long getTotalNanos() {
+        return snapshot.stats.getTotalNanos();
+    }
+
+    @Override
+    public HeapSortPhaseMetrics getBuildPhase() {
+        return HeapSortPhaseMetrics.of(snapshot.stats, HeapSortPhase.BUILD);
+    }
+
+    @Override
+    public HeapSortPhaseMetrics getSortPhase() {
+        return HeapSortPhaseMetrics.of(snapshot.stats, HeapSortPhase.SORT);
+    }
+
+    @Override
+    public HeapSortPhaseMetrics getReconstructPhase() {
+        return HeapSortPhaseMetrics.of(snapshot.stats, HeapSortPhase.RECONSTRUCT);
+    }
+
+    private static final class Snapshot {
+        final HeapSortStats stats;
+        final HeapBuildStrategy buildStrategy;
+        final int arity;
+        final int elementCount;
+        final boolean running;
+
+        Snapshot(HeapSortStats stats, HeapBuildStrategy buildStrategy, int arity, int elementCount, boolean running) {
+            this.stats = stats;
+            this.buildStrategy = buildStrategy;
+            this.arity = arity;
+            this.elementCount = elementCount;
+            this.running = running;
+        }
+    }
+}
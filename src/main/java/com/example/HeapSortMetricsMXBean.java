@@ -0,0 +1,32 @@
+package com.example;
+
+/**
+ * JMX view of the work done by the most recent heap sort, registered as
+ * {@code com.example:type=HeapSortMetrics} while the visualizer runs.
+ */
+public interface HeapSortMetricsMXBean {
+    String getBuildStrategy();
+
+    int getArity();
+
+    int getElementCount();
+
+    // Whether the trace is still being generated, so the counters are still growing
+    boolean isRunning();
+
+    long getTotalComparisons();
+
+    long getTotalSwaps();
+
+    long getTotalReads();
+
+    long getTotalWrites();
+
+    long getTotalNanos();
+
+    HeapSortPhaseMetrics getBuildPhase();
+
+    HeapSortPhaseMetrics getSortPhase();
+
+    HeapSortPhaseMetrics getReconstructPhase();
+}
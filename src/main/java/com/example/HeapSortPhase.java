@@ -0,0 +1,7 @@
+package com.example;
+
+public enum HeapSortPhase {
+    BUILD,
+    SORT,
+    RECONSTRUCT
+}
@@ -0,0 +1,58 @@
+package com.example;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Immutable counters of one heap sort phase, exposed over JMX as composite
+ * data by {@link HeapSortMetricsMXBean}.
+ */
+public class HeapSortPhaseMetrics {
+    private final long comparisons;
+    private final long swaps;
+    private final long reads;
+    private final long writes;
+    private final long nanos;
+    private final long[] siftDepthHistogram;
+
+    @ConstructorParameters({"comparisons", "swaps", "reads", "writes", "nanos", "siftDepthHistogram"})
+    public HeapSortPhaseMetrics(long comparisons, long swaps, long reads, long writes, long nanos,
+                                long[] siftDepthHistogram) {
+        this.comparisons = comparisons;
+        this.swaps = swaps;
+        this.reads = reads;
+        this.writes = writes;
+        this.nanos = nanos;
+        this.siftDepthHistogram = siftDepthHistogram.clone();
+    }
+
+    public static HeapSortPhaseMetrics of(HeapSortStats stats, HeapSortPhase phase) {
+        return new HeapSortPhaseMetrics(stats.getComparisons(phase), stats.getSwaps(phase),
+            stats.getReads(phase), stats.getWrites(phase), stats.getNanos(phase),
+            stats.getSiftDepthHistogram(phase));
+    }
+
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    public long getSwaps() {
+        return swaps;
+    }
+
+    public long getReads() {
+        return reads;
+    }
+
+    public long getWrites() {
+        return writes;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    // Number of sifts per depth in levels
+    public long[] getSiftDepthHistogram() {
+        return siftDepthHistogram.clone();
+    }
+}
@@ -0,0 +1,175 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * Work counters of one {@link HeapSortEngine} run, per phase: comparisons,
+ * swaps, heap array reads and writes, wall-clock time, and a histogram of how
+ * many levels each sift moved an element.
+ */
+public class HeapSortStats {
+    // Sifts that moved an element this many levels or more share the last bucket
+    public static final int MAX_SIFT_DEPTH = 32;
+
+    private static final int PHASES = HeapSortPhase.values().length;
+
+    private final long[] comparisons = new long[PHASES];
+    private final long[] swaps = new long[PHASES];
+    private final long[] reads = new long[PHASES];
+    private final long[] writes = new long[PHASES];
+    private final long[] nanos = new long[PHASES];
+    private final long[][] siftDepths = new long[PHASES][MAX_SIFT_DEPTH + 1];
+
+    void record(HeapSortPhase phase, long phaseComparisons, long phaseSwaps) {
+        comparisons[phase.ordinal()] += phaseComparisons;
+        swaps[phase.ordinal()] += phaseSwaps;
+    }
+
+    void recordAccesses(HeapSortPhase phase, long phaseReads, long phaseWrites, long phaseNanos) {
+        reads[phase.ordinal()] += phaseReads;
+        writes[phase.ordinal()] += phaseWrites;
+        nanos[phase.ordinal()] += phaseNanos;
+    }
+
+    void recordSiftDepth(HeapSortPhase phase, int depth) {
+        siftDepths[phase.ordinal()][Math.min(depth, MAX_SIFT_DEPTH)]++;
+    }
+
+    void reset() {
+        Arrays.fill(comparisons, 0);
+        Arrays.fill(swaps, 0);
+        Arrays.fill(reads, 0);
+        Arrays.fill(writes, 0);
+        Arrays.fill(nanos, 0);
+        for (long[] histogram : siftDepths) {
+            Arrays.fill(histogram, 0);
+        }
+    }
+
+    // Independent copy, e.g. to hand the counters of a running sort to another thread
+    public HeapSortStats copy() {
+        HeapSortStats copy = new HeapSortStats();
+        copy.add(this);
+        return copy;
+    }
+
+    void add(HeapSortStats other) {
+        for (int i = 0; i < PHASES; i++) {
+            comparisons[i] += other.comparisons[i];
+            swaps[i] += other.swaps[i];
+            reads[i] += other.reads[i];
+            writes[i] += other.writes[i];
+            nanos[i] += other.nanos[i];
+            for (int depth = 0; depth <= MAX_SIFT_DEPTH; depth++) {
+                siftDepths[i][depth] += other.siftDepths[i][depth];
+            }
+        }
+    }
+
+    public long getComparisons(HeapSortPhase phase) {
+        return comparisons[phase.ordinal()];
+    }
+
+    public long getSwaps(HeapSortPhase phase) {
+        return swaps[phase.ordinal()];
+    }
+
+    public long getReads(HeapSortPhase phase) {
+        return reads[phase.ordinal()];
+    }
+
+    public long getWrites(HeapSortPhase phase) {
+        return writes[phase.ordinal()];
+    }
+
+    // Wall-clock time spent in the phase, including time spent in listeners
+    public long getNanos(HeapSortPhase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    // Number of sifts per depth in levels; index MAX_SIFT_DEPTH counts all deeper sifts
+    public long[] getSiftDepthHistogram(HeapSortPhase phase) {
+        return siftDepths[phase.ordinal()].clone();
+    }
+
+    public long getSiftCount(HeapSortPhase phase) {
+        long count = 0;
+        for (long sifts : siftDepths[phase.ordinal()]) {
+            count += sifts;
+        }
+        return count;
+    }
+
+    // Average number of levels a sift moved an element, 0 when the phase had no sifts
+    public double getMeanSiftDepth(HeapSortPhase phase) {
+        long[] histogram = siftDepths[phase.ordinal()];
+        long count = 0;
+        long total = 0;
+        for (int depth = 0; depth < histogram.length; depth++) {
+            count += histogram[depth];
+            total += depth * histogram[depth];
+        }
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    // Deepest sift of the phase, or -1 when the phase had no sifts
+    public int getMaxSiftDepth(HeapSortPhase phase) {
+        long[] histogram = siftDepths[phase.ordinal()];
+        for (int depth = histogram.length - 1; depth >= 0; depth--) {
+            if (histogram[depth] > 0) {
+                return depth;
+            }
+        }
+        return -1;
+    }
+
+    public long getTotalComparisons() {
+        return sum(comparisons);
+    }
+
+    public long getTotalSwaps() {
+        return sum(swaps);
+    }
+
+    public long getTotalReads() {
+        return sum(reads);
+    }
+
+    public long getTotalWrites() {
+        return sum(writes);
+    }
+
+    public long getTotalNanos() {
+        return sum(nanos);
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    // Multi-line table of all counters per phase, for monospace display
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format("%-12s %14s %14s %14s %14s %10s %10s %6s %5s%n",
+            "Phase", "Comparisons", "Swaps", "Reads", "Writes", "Time (ms)", "Sifts", "Depth", "Max"));
+        for (HeapSortPhase phase : HeapSortPhase.values()) {
+            table.append(String.format("%-12s %14d %14d %14d %14d %10.2f %10d %6.2f %5d%n",
+                phase, getComparisons(phase), getSwaps(phase), getReads(phase), getWrites(phase),
+                getNanos(phase) / 1e6, getSiftCount(phase), getMeanSiftDepth(phase),
+                Math.max(0, getMaxSiftDepth(phase))));
+        }
+        table.append(String.format("%-12s %14d %14d %14d %14d %10.2f", "TOTAL", getTotalComparisons(),
+            getTotalSwaps(), getTotalReads(), getTotalWrites(), getTotalNanos() / 1e6));
+        return table.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("build: %d comparisons, %d swaps; sort: %d comparisons, %d swaps",
+            getComparisons(HeapSortPhase.BUILD), getSwaps(HeapSortPhase.BUILD),
+            getComparisons(HeapSortPhase.SORT), getSwaps(HeapSortPhase.SORT));
+    }
+}
@@ -0,0 +1,170 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Streams decimal integers separated by whitespace and/or commas out of a
+ * byte channel, parsing digits directly from a reusable buffer so no String
+ * is created per number. Parse state is carried across buffer boundaries, so
+ * inputs of any size are read with constant memory apart from the result.
+ * Errors are reported as {@link IntParseException} with the byte offset of the
+ * offending character.
+ */
+public class IntInputParser {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_INITIAL_CAPACITY = 1 << 22;
+    private static final long MAX_MAGNITUDE = -(long) Integer.MIN_VALUE;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    // Parse state of the number currently being read
+    private long offset;
+    private long tokenOffset;
+    private boolean inNumber;
+    private boolean hasDigits;
+    private boolean negative;
+    private long magnitude;
+
+    /** Reads all integers of a file into an array. */
+    public int[] parse(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Size the array from the file length, bounded so huge files start small and grow
+            IntArrayBuilder values = new IntArrayBuilder((int) Math.min(channel.size() / 4 + 16, MAX_INITIAL_CAPACITY));
+            parse(channel, values);
+            return values.toArray();
+        }
+    }
+
+    /** Reads all integers of a channel into an array. */
+    public int[] parse(ReadableByteChannel channel) throws IOException {
+        IntArrayBuilder values = new IntArrayBuilder(1024);
+        parse(channel, values);
+        return values.toArray();
+    }
+
+    /** Parses integers typed as text, e.g. into an input field. */
+    public int[] parse(CharSequence text) throws IntParseException {
+        IntArrayBuilder values = new IntArrayBuilder(16);
+        reset();
+        byte[] bytes = text.toString().getBytes(StandardCharsets.ISO_8859_1);
+        accept(bytes, 0, bytes.length, values);
+        finish(values);
+        return values.toArray();
+    }
+
+    /** Streams every integer of the channel to the consumer, in input order. */
+    public void parse(ReadableByteChannel channel, IntConsumer consumer) throws IOException {
+        reset();
+        buffer.clear();
+        while (channel.read(buffer) >= 0) {
+            accept(buffer.array(), 0, buffer.position(), consumer);
+            buffer.clear();
+        }
+        finish(consumer);
+    }
+
+    private void reset() {
+        offset = 0;
+        inNumber = false;
+    }
+
+    private void accept(byte[] bytes, int from, int to, IntConsumer consumer) throws IntParseException {
+        for (int i = from; i < to; i++, offset++) {
+            int b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                if (!inNumber) {
+                    startNumber();
+                }
+                magnitude = magnitude * 10 + (b - '0');
+                hasDigits = true;
+                if (magnitude > MAX_MAGNITUDE) {
+                    throw new IntParseException("Number out of int range", tokenOffset);
+                }
+            } else if (b == ' ' || b == ',' || b == '\n' || b == '\r' || b == '\t') {
+                if (inNumber) {
+                    endNumber(consumer);
+                }
+            } else if ((b == '-' || b == '+') && !inNumber) {
+                startNumber();
+                negative = b == '-';
+            } else {
+                throw new IntParseException(String.format("Unexpected character '%s'", printable(b)), offset);
+            }
+        }
+    }
+
+    private void startNumber() {
+        inNumber = true;
+        hasDigits = false;
+        negative = false;
+        magnitude = 0;
+        tokenOffset = offset;
+    }
+
+    private void endNumber(IntConsumer consumer) throws IntParseException {
+        if (!hasDigits) {
+            throw new IntParseException("Sign without digits", tokenOffset);
+        }
+        long value = negative ? -magnitude : magnitude;
+        if (value > Integer.MAX_VALUE) {
+            throw new IntParseException("Number out of int range", tokenOffset);
+        }
+        inNumber = false;
+        consumer.accept((int) value);
+    }
+
+    private void finish(IntConsumer consumer) throws IntParseException {
+        if (inNumber) {
+            endNumber(consumer);
+        }
+    }
+
+    private static String printable(int b) {
+        int c = b & 0xFF;
+        return c >= 0x20 && c < 0x7F ? String.valueOf((char) c) : String.format("\\x%02X", c);
+    }
+
+    /** Thrown for malformed input; the offset is the byte position of the problem. */
+    public static class IntParseException extends IOException {
+        private final long offset;
+
+        public IntParseException(String message, long offset) {
+            super(message + " at byte offset " + offset);
+            this.offset = offset;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+    }
+
+    // Growable primitive array used as the consumer when collecting all values
+    private static final class IntArrayBuilder implements IntConsumer {
+        private int[] values;
+        private int size;
+
+        IntArrayBuilder(int initialCapacity) {
+            values = new int[Math.max(initialCapacity, 16)];
+        }
+
+        @Override
+        public void accept(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, (int) Math.min((long) values.length * 2, Integer.MAX_VALUE - 8));
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return size == values.length ? values : Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.IntConsumer;
+
+/**
+ * Growable sequence of ints addressed by long indices, the array an
+ * {@link IntStorageHeapSort} sorts in place. Values are appended through
+ * {@link #accept(int)}, so a storage can be filled straight from
+ * {@link IntInputParser#parse(java.nio.channels.ReadableByteChannel, IntConsumer)}.
+ *
+ * <p>Three backends are available: a plain {@code int[]} on the Java heap,
+ * direct (off-heap) memory, and a memory-mapped file. The off-heap backends
+ * are split into segments, so they are bounded by memory or disk space rather
+ * than by {@code -Xmx} or the 2^31 element limit of Java arrays, and their
+ * data never has to be scanned or copied by the garbage collector.
+ * Implementations are not thread-safe.
+ */
+public interface IntStorage extends IntConsumer, Closeable {
+    long size();
+
+    int get(long index);
+
+    void set(long index, int value);
+
+    // Appends a value at index size()
+    @Override
+    void accept(int value);
+
+    // Releases the storage; a mapped file is flushed, holding exactly the values stored
+    @Override
+    default void close() throws IOException {
+    }
+
+    // Backed by the given array, which holds the initial values; grows by copying like an ArrayList
+    static IntStorage onHeap(int[] values) {
+        return new ArrayIntStorage(values);
+    }
+
+    static IntStorage onHeap() {
+        return new ArrayIntStorage(new int[0]);
+    }
+
+    // Off-heap memory, released once the storage becomes unreachable
+    static IntStorage direct() {
+        return new SegmentedIntStorage.Direct();
+    }
+
+    /**
+     * Memory-mapped file holding the values as little-endian ints, the format
+     * of {@link ExternalHeapSort}'s run files. An existing file's contents
+     * become the initial values; changes are written back to it.
+     */
+    static IntStorage mapped(Path file) throws IOException {
+        return new SegmentedIntStorage.Mapped(file);
+    }
+}
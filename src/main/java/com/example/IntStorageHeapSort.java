@@ -0,0 +1,194 @@
+package com.example;
+
+/**
+ * Sorts an {@link IntStorage} in place with the same d-ary max-heap algorithm
+ * as {@link HeapSortEngine}, but in one pass without events or tracing, and
+ * with long indices so off-heap storage beyond 2^31 values can be sorted with
+ * a small Java heap. Sifts move a hole instead of swapping at every level:
+ * the sifted value is read once and written once, and each level it moves
+ * counts as one swap so the statistics compare directly with the engine's.
+ * The bottom-up sift moves the hole down to a leaf along the larger children
+ * and then sifts the value up from there, the hole form of the engine's
+ * {@link SiftDownStrategy#BOTTOM_UP} with the same comparison count.
+ */
+public class IntStorageHeapSort {
+    private HeapBuildStrategy buildStrategy = HeapBuildStrategy.INSERTION;
+    private int arity = 2;
+    private SiftDownStrategy siftDownStrategy = SiftDownStrategy.CLASSIC;
+    private final HeapSortStats stats = new HeapSortStats();
+    // Counters of the phase in progress
+    private long comparisons;
+    private long swaps;
+    private long reads;
+    private long writes;
+
+    public void setBuildStrategy(HeapBuildStrategy buildStrategy) {
+        this.buildStrategy = buildStrategy;
+    }
+
+    // Number of children per heap node
+    public void setArity(int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2: " + arity);
+        }
+        this.arity = arity;
+    }
+
+    // How the sort phase sifts the displaced value down
+    public void setSiftDownStrategy(SiftDownStrategy siftDownStrategy) {
+        this.siftDownStrategy = siftDownStrategy;
+    }
+
+    // Counts of the last sort, per phase
+    public HeapSortStats getStats() {
+        return stats;
+    }
+
+    public void sort(IntStorage storage) {
+        stats.reset();
+        long size = storage.size();
+        long start = System.nanoTime();
+        if (buildStrategy == HeapBuildStrategy.FLOYD) {
+            // Heapify every internal node from the bottom up
+            for (long index = size < 2 ? -1 : (size - 2) / arity; index >= 0; index--) {
+                reads++;
+                siftDown(storage, index, storage.get(index), size, HeapSortPhase.BUILD);
+            }
+        } else {
+            for (long index = 0; index < size; index++) {
+                reads++;
+                siftUp(storage, index, storage.get(index));
+            }
+        }
+        long built = System.nanoTime();
+        endPhase(HeapSortPhase.BUILD, built - start);
+
+        // Move the root behind the shrinking heap and sift the displaced last value down
+        for (long last = size - 1; last > 0; last--) {
+            int value = storage.get(last);
+            storage.set(last, storage.get(0));
+            reads += 2;
+            writes++;
+            swaps++;
+            if (siftDownStrategy == SiftDownStrategy.BOTTOM_UP) {
+                siftDownBottomUp(storage, value, last);
+            } else {
+                siftDown(storage, 0, value, last, HeapSortPhase.SORT);
+            }
+        }
+        endPhase(HeapSortPhase.SORT, System.nanoTime() - built);
+    }
+
+    // Moves the hole from the root to a leaf, then lets the value climb back to its place
+    private void siftDownBottomUp(IntStorage storage, int value, long size) {
+        long index = 0;
+        int levels = 0;
+        while (true) {
+            long firstChild = arity * index + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            long childEnd = Math.min(firstChild + arity, size);
+            long largest = firstChild;
+            int largestValue = storage.get(firstChild);
+            reads++;
+            for (long child = firstChild + 1; child < childEnd; child++) {
+                int childValue = storage.get(child);
+                comparisons++;
+                reads++;
+                if (childValue > largestValue) {
+                    largest = child;
+                    largestValue = childValue;
+                }
+            }
+            storage.set(index, largestValue);
+            writes++;
+            levels++;
+            index = largest;
+        }
+        int climbed = 0;
+        while (index > 0) {
+            long parent = (index - 1) / arity;
+            int parentValue = storage.get(parent);
+            comparisons++;
+            reads++;
+            if (value <= parentValue) {
+                break;
+            }
+            storage.set(index, parentValue);
+            writes++;
+            climbed++;
+            index = parent;
+        }
+        storage.set(index, value);
+        writes++;
+        // Levels the value ended up below the root, i.e. the swaps of the classic sift when values are distinct
+        swaps += levels - climbed;
+        stats.recordSiftDepth(HeapSortPhase.SORT, levels - climbed);
+    }
+
+    private void siftUp(IntStorage storage, long index, int value) {
+        int depth = 0;
+        while (index > 0) {
+            long parent = (index - 1) / arity;
+            int parentValue = storage.get(parent);
+            comparisons++;
+            reads++;
+            if (value <= parentValue) {
+                break;
+            }
+            storage.set(index, parentValue);
+            writes++;
+            swaps++;
+            depth++;
+            index = parent;
+        }
+        storage.set(index, value);
+        writes++;
+        stats.recordSiftDepth(HeapSortPhase.BUILD, depth);
+    }
+
+    private void siftDown(IntStorage storage, long index, int value, long size, HeapSortPhase phase) {
+        int depth = 0;
+        while (true) {
+            long firstChild = arity * index + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            long childEnd = Math.min(firstChild + arity, size);
+            long largest = firstChild;
+            int largestValue = storage.get(firstChild);
+            reads++;
+            for (long child = firstChild + 1; child < childEnd; child++) {
+                int childValue = storage.get(child);
+                comparisons++;
+                reads++;
+                if (childValue > largestValue) {
+                    largest = child;
+                    largestValue = childValue;
+                }
+            }
+            comparisons++;
+            if (largestValue <= value) {
+                break;
+            }
+            storage.set(index, largestValue);
+            writes++;
+            swaps++;
+            depth++;
+            index = largest;
+        }
+        storage.set(index, value);
+        writes++;
+        stats.recordSiftDepth(phase, depth);
+    }
+
+    private void endPhase(HeapSortPhase phase, long nanos) {
+        stats.record(phase, comparisons, swaps);
+        stats.recordAccesses(phase, reads, writes, nanos);
+        comparisons = 0;
+        swaps = 0;
+        reads = 0;
+        writes = 0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+
+/**
+ * Hands values from a worker thread to the FX application thread, keeping
+ * only the latest: a value the FX thread has not picked up yet is replaced,
+ * so a fast producer never queues up work for the UI.
+ */
+final class LatestValuePublisher<T> {
+    private final AtomicReference<T> pending = new AtomicReference<>();
+    private final Consumer<T> consumer;
+
+    LatestValuePublisher(Consumer<T> consumer) {
+        this.consumer = consumer;
+    }
+
+    void publish(T value) {
+        // Schedule a UI update only if the previous value has already been taken
+        if (pending.getAndSet(value) == null) {
+            Platform.runLater(() -> {
+                T latest = pending.getAndSet(null);
+                if (latest != null) {
+                    consumer.accept(latest);
+                }
+            });
+        }
+    }
+}
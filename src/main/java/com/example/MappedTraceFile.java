@@ -0,0 +1,182 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a trace file written by {@link TraceFileWriter}. Step
+ * records are memory-mapped in segments of up to {@link #SEGMENT_SIZE} bytes
+ * and read in place, so a trace larger than the Java heap can be navigated;
+ * only the input and, on request, the snapshots are loaded into memory.
+ */
+public class MappedTraceFile implements TraceSource, AutoCloseable {
+    private static final int SEGMENT_SHIFT = 30;
+    static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT; // A multiple of the record size
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final FileChannel channel;
+    private final int[] input;
+    private final HeapBuildStrategy buildStrategy;
+    private final int arity;
+    private final int topK;
+    private final SiftDownStrategy siftDownStrategy;
+    private final int stepCount;
+    private final int heapBuiltStep;
+    private final long footerOffset;
+    private final HeapSortStats stats = new HeapSortStats();
+    private final MappedByteBuffer[] segments;
+
+    private MappedTraceFile(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = read(0, TraceFileFormat.HEADER_SIZE);
+        int magic = header.getInt(TraceFileFormat.MAGIC_OFFSET);
+        if (magic == 0) {
+            throw new IOException("Trace file is incomplete");
+        }
+        if (magic != TraceFileFormat.MAGIC) {
+            throw new IOException("Not a heap sort trace file");
+        }
+        int version = header.getInt(TraceFileFormat.VERSION_OFFSET);
+        if (version != TraceFileFormat.VERSION) {
+            throw new IOException("Unsupported trace file version " + version);
+        }
+        int elementCount = header.getInt(TraceFileFormat.ELEMENT_COUNT_OFFSET);
+        buildStrategy = HeapBuildStrategy.values()[header.getInt(TraceFileFormat.BUILD_STRATEGY_OFFSET)];
+        arity = header.getInt(TraceFileFormat.ARITY_OFFSET);
+        topK = header.getInt(TraceFileFormat.TOP_K_OFFSET);
+        siftDownStrategy = SiftDownStrategy.values()[header.getInt(TraceFileFormat.SIFT_DOWN_OFFSET)];
+        long steps = header.getLong(TraceFileFormat.STEP_COUNT_OFFSET);
+        if (steps > Integer.MAX_VALUE - 1) {
+            throw new IOException("Trace has too many steps: " + steps);
+        }
+        stepCount = (int) steps;
+        heapBuiltStep = (int) header.getLong(TraceFileFormat.HEAP_BUILT_STEP_OFFSET);
+        footerOffset = header.getLong(TraceFileFormat.FOOTER_OFFSET_OFFSET);
+        int offset = TraceFileFormat.STATS_OFFSET;
+        for (HeapSortPhase phase : HeapSortPhase.values()) {
+            stats.record(phase, header.getLong(offset), header.getLong(offset + Long.BYTES));
+            offset += 2 * Long.BYTES;
+        }
+
+        input = new int[elementCount];
+        read(TraceFileFormat.HEADER_SIZE, 4L * elementCount).asIntBuffer().get(input);
+
+        long recordsOffset = TraceFileFormat.recordsOffset(elementCount);
+        long recordsSize = (long) stepCount * TraceFileFormat.RECORD_SIZE;
+        segments = new MappedByteBuffer[(int) ((recordsSize + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << SEGMENT_SHIFT;
+            long size = Math.min(SEGMENT_SIZE, recordsSize - start);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, recordsOffset + start, size);
+            segments[i].order(TraceFileFormat.BYTE_ORDER);
+        }
+    }
+
+    public static MappedTraceFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedTraceFile(channel);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    private ByteBuffer read(long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(TraceFileFormat.BYTE_ORDER);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Trace file is truncated");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private long record(int step) {
+        long offset = (long) step * TraceFileFormat.RECORD_SIZE;
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getLong((int) (offset & SEGMENT_MASK));
+    }
+
+    /**
+     * Loads the snapshots stored in the footer, keeping as many as fit in the
+     * given budget.
+     */
+    public TraceCheckpoints readCheckpoints(long budgetBytes) throws IOException {
+        TraceCheckpoints checkpoints = new TraceCheckpoints(input.length, budgetBytes);
+        int count = read(footerOffset, Integer.BYTES).getInt();
+        long position = footerOffset + Integer.BYTES;
+        long snapshotSize = TraceFileFormat.SNAPSHOT_HEADER_SIZE + 4L * input.length;
+        int[] heap = new int[input.length];
+        for (int i = 0; i < count; i++) {
+            ByteBuffer snapshot = read(position, snapshotSize);
+            int step = snapshot.getInt();
+            int heapSize = snapshot.getInt();
+            int sortedCount = snapshot.getInt();
+            IntBuffer values = snapshot.asIntBuffer();
+            values.get(heap);
+            checkpoints.add(step, heap, heapSize, sortedCount);
+            position += snapshotSize;
+        }
+        return checkpoints;
+    }
+
+    public int[] input() {
+        return input;
+    }
+
+    public HeapBuildStrategy buildStrategy() {
+        return buildStrategy;
+    }
+
+    public int arity() {
+        return arity;
+    }
+
+    // Number of largest values the recorded run extracted, 0 for a full sort
+    public int topK() {
+        return topK;
+    }
+
+    public SiftDownStrategy siftDownStrategy() {
+        return siftDownStrategy;
+    }
+
+    public HeapSortStats stats() {
+        return stats;
+    }
+
+    @Override
+    public int size() {
+        return stepCount;
+    }
+
+    @Override
+    public int op(int step) {
+        return OperationLog.opOf(record(step));
+    }
+
+    @Override
+    public int indexA(int step) {
+        return OperationLog.indexAOf(record(step));
+    }
+
+    @Override
+    public int indexB(int step) {
+        return OperationLog.indexBOf(record(step));
+    }
+
+    @Override
+    public int heapBuiltStep() {
+        return heapBuiltStep;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
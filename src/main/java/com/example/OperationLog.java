@@ -0,0 +1,123 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * Append-only log of the operations performed by the heap sort. Every step is
+ * encoded into a single primitive long (operation code plus up to two indices),
+ * so memory per step is constant no matter how large the heap is. The log is
+ * filled by subscribing it to a {@link HeapSortEngine}.
+ */
+public class OperationLog implements HeapSortListener, TraceSource {
+    public static final int INSERT = 0;        // a = heap index, value is input[a]
+    public static final int COMPARE = 1;       // a, b = compared heap indices
+    public static final int SWAP = 2;          // a, b = swapped heap indices
+    public static final int EXTRACT = 3;       // a = root, b = last heap index
+    public static final int HEAP_BUILT = 4;    // marker, no indices
+    public static final int PLACE_SORTED = 5;  // a = index placed in the sorted data array
+
+    private static final int INDEX_BITS = 30;
+    public static final int MAX_INDEX = (1 << INDEX_BITS) - 1;
+    private static final long INDEX_MASK = MAX_INDEX;
+    public static final int MAX_STEPS = Integer.MAX_VALUE - 8; // Largest array the VM allocates
+
+    private long[] records = new long[256];
+    private int size;
+    private int heapBuiltStep = -1;
+
+    public void add(int op, int a, int b) {
+        ensureCapacity(size + 1L);
+        records[size++] = encode(op, a, b);
+    }
+
+    // Append all operations of another log, e.g. a batch produced on a worker thread
+    public void append(OperationLog batch) {
+        ensureCapacity((long) size + batch.size);
+        if (batch.heapBuiltStep >= 0) {
+            heapBuiltStep = size + batch.heapBuiltStep;
+        }
+        System.arraycopy(batch.records, 0, records, size, batch.size);
+        size += batch.size;
+    }
+
+    private void ensureCapacity(long capacity) {
+        if (capacity > records.length) {
+            if (capacity > MAX_STEPS) {
+                throw new IllegalStateException("Operation log is full at " + MAX_STEPS + " steps");
+            }
+            records = Arrays.copyOf(records, (int) Math.min(Math.max(capacity, records.length * 2L), MAX_STEPS));
+        }
+    }
+
+    @Override
+    public void onInsert(int index, int value) {
+        add(INSERT, index, 0);
+    }
+
+    @Override
+    public void onCompare(int index1, int index2) {
+        add(COMPARE, index1, index2);
+    }
+
+    @Override
+    public void onSwap(int index1, int index2) {
+        add(SWAP, index1, index2);
+    }
+
+    @Override
+    public void onHeapBuilt() {
+        add(HEAP_BUILT, 0, 0);
+        heapBuiltStep = size;
+    }
+
+    @Override
+    public void onExtract(int rootIndex, int lastIndex) {
+        add(EXTRACT, rootIndex, lastIndex);
+    }
+
+    @Override
+    public void onPlaced(int index, int value) {
+        add(PLACE_SORTED, index, 0);
+    }
+
+    @Override
+    public int heapBuiltStep() {
+        return heapBuiltStep;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int op(int step) {
+        return opOf(records[step]);
+    }
+
+    @Override
+    public int indexA(int step) {
+        return indexAOf(records[step]);
+    }
+
+    @Override
+    public int indexB(int step) {
+        return indexBOf(records[step]);
+    }
+
+    static long encode(int op, int a, int b) {
+        return ((long) op << (2 * INDEX_BITS)) | ((a & INDEX_MASK) << INDEX_BITS) | (b & INDEX_MASK);
+    }
+
+    static int opOf(long record) {
+        return (int) (record >>> (2 * INDEX_BITS));
+    }
+
+    static int indexAOf(long record) {
+        return (int) ((record >>> INDEX_BITS) & INDEX_MASK);
+    }
+
+    static int indexBOf(long record) {
+        return (int) (record & INDEX_MASK);
+    }
+}
@@ -0,0 +1,217 @@
+package com.example;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Optional render performance probe for the visualizer. While running it
+ * measures frame rate and the longest frame gap, the CSS and layout part of
+ * each JavaFX pulse, the scene-graph size of the tree and data array, the
+ * allocation rate of the FX application thread, and the latency from a step
+ * being started to the end of its animation. Once per second the figures are
+ * shown on the overlay label and kept as a CSV row for export.
+ */
+public class PerformanceMonitor {
+    private static final long SAMPLE_NANOS = 1_000_000_000L;
+    private static final int MAX_SAMPLES = 3600; // One hour of samples
+    private static final String CSV_HEADER = "time_ms,fps,max_frame_ms,mean_pulse_ms,max_pulse_ms,"
+        + "tree_nodes,data_array_nodes,alloc_mb_per_s,steps,mean_step_ms,max_step_ms";
+
+    private final Label overlay;
+    private final Parent treePane;
+    private final Parent dataArrayContainer;
+    private final com.sun.management.ThreadMXBean threads;
+    private final ArrayDeque<String> samples = new ArrayDeque<>();
+    private final Runnable prePulse = this::pulseStarted;
+    private final Runnable postPulse = this::pulseFinished;
+    private final AnimationTimer frameTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            frame(now);
+        }
+    };
+
+    private Scene scene;
+    private boolean running;
+    // Counters of the sample in progress
+    private long sampleStart;
+    private long sampleAllocated;
+    private long lastFrame;
+    private int frames;
+    private long maxFrameGap;
+    private long pulseStart = -1;
+    private int pulses;
+    private long pulseNanos;
+    private long maxPulseNanos;
+    private long stepStart = -1;
+    private int steps;
+    private long stepNanos;
+    private long maxStepNanos;
+
+    public PerformanceMonitor(Label overlay, Parent treePane, Parent dataArrayContainer) {
+        this.overlay = overlay;
+        this.treePane = treePane;
+        this.dataArrayContainer = dataArrayContainer;
+        threads = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+            && bean.isThreadAllocatedMemorySupported() ? bean : null;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Must be called on the FX application thread once the panes are part of a scene
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        scene = treePane.getScene();
+        if (scene != null) {
+            scene.addPreLayoutPulseListener(prePulse);
+            scene.addPostLayoutPulseListener(postPulse);
+        }
+        if (threads != null) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        resetSample(System.nanoTime());
+        lastFrame = -1;
+        overlay.setText("Measuring...");
+        overlay.setVisible(true);
+        frameTimer.start();
+    }
+
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        frameTimer.stop();
+        if (scene != null) {
+            scene.removePreLayoutPulseListener(prePulse);
+            scene.removePostLayoutPulseListener(postPulse);
+            scene = null;
+        }
+        overlay.setVisible(false);
+    }
+
+    // A step transition began; its latency is taken when stepFinished() follows
+    public void stepStarted() {
+        if (running) {
+            stepStart = System.nanoTime();
+        }
+    }
+
+    public void stepFinished() {
+        if (running && stepStart >= 0) {
+            long latency = System.nanoTime() - stepStart;
+            steps++;
+            stepNanos += latency;
+            maxStepNanos = Math.max(maxStepNanos, latency);
+        }
+        stepStart = -1;
+    }
+
+    public int sampleCount() {
+        return samples.size();
+    }
+
+    public void exportCsv(Path file) throws IOException {
+        List<String> lines = new ArrayList<>(samples.size() + 1);
+        lines.add(CSV_HEADER);
+        lines.addAll(samples);
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    private void pulseStarted() {
+        pulseStart = System.nanoTime();
+    }
+
+    private void pulseFinished() {
+        if (pulseStart >= 0) {
+            long duration = System.nanoTime() - pulseStart;
+            pulses++;
+            pulseNanos += duration;
+            maxPulseNanos = Math.max(maxPulseNanos, duration);
+            pulseStart = -1;
+        }
+    }
+
+    private void frame(long now) {
+        frames++;
+        if (lastFrame >= 0) {
+            maxFrameGap = Math.max(maxFrameGap, now - lastFrame);
+        }
+        lastFrame = now;
+        if (now - sampleStart >= SAMPLE_NANOS) {
+            takeSample(now);
+        }
+    }
+
+    private void takeSample(long now) {
+        double seconds = (now - sampleStart) / 1e9;
+        long allocated = allocatedBytes();
+        double allocRate = allocated < 0 ? Double.NaN : (allocated - sampleAllocated) / 1e6 / seconds;
+        double fps = frames / seconds;
+        double meanPulse = pulses == 0 ? 0 : pulseNanos / 1e6 / pulses;
+        double meanStep = steps == 0 ? 0 : stepNanos / 1e6 / steps;
+        int treeNodes = countNodes(treePane);
+        int dataNodes = countNodes(dataArrayContainer);
+
+        overlay.setText(String.format("FPS %.0f (max frame %.1f ms)%n"
+                + "Pulse layout %.2f ms (max %.2f ms)%n"
+                + "Nodes: tree %d, data array %d%n"
+                + "Allocation %s%n"
+                + "Step latency %.1f ms (max %.1f ms, %d steps)",
+            fps, maxFrameGap / 1e6, meanPulse, maxPulseNanos / 1e6, treeNodes, dataNodes,
+            Double.isNaN(allocRate) ? "n/a" : String.format("%.1f MB/s", allocRate),
+            meanStep, maxStepNanos / 1e6, steps));
+        if (samples.size() == MAX_SAMPLES) {
+            samples.removeFirst();
+        }
+        samples.addLast(String.format(Locale.ROOT, "%d,%.1f,%.2f,%.3f,%.3f,%d,%d,%s,%d,%.2f,%.2f",
+            System.currentTimeMillis(), fps, maxFrameGap / 1e6, meanPulse, maxPulseNanos / 1e6,
+            treeNodes, dataNodes, Double.isNaN(allocRate) ? "" : String.format(Locale.ROOT, "%.2f", allocRate),
+            steps, meanStep, maxStepNanos / 1e6));
+        resetSample(now);
+    }
+
+    private void resetSample(long now) {
+        sampleStart = now;
+        sampleAllocated = allocatedBytes();
+        frames = 0;
+        maxFrameGap = 0;
+        pulses = 0;
+        pulseNanos = 0;
+        maxPulseNanos = 0;
+        steps = 0;
+        stepNanos = 0;
+        maxStepNanos = 0;
+    }
+
+    // Bytes allocated so far by the calling (FX application) thread, or -1 if unsupported
+    private long allocatedBytes() {
+        return threads == null ? -1 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    private static int countNodes(Parent parent) {
+        int count = 1;
+        for (Node child : parent.getChildrenUnmodifiable()) {
+            count += child instanceof Parent childParent ? countNodes(childParent) : 1;
+        }
+        return count;
+    }
+}
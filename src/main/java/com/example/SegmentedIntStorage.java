@@ -0,0 +1,224 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Off-heap {@link IntStorage} split into segments of 2^26 ints (256 MB),
+ * since a single buffer is limited to 2 GB. An index selects its segment by
+ * shift and its slot by mask. Only the last segment is partly used; it grows
+ * by doubling until it reaches the full segment size. Up to 2^12 segments
+ * (2^38 ints, 1 TB) are supported.
+ */
+abstract class SegmentedIntStorage implements IntStorage {
+    static final int SEGMENT_SHIFT = 26;
+    static final int SEGMENT_INTS = 1 << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_INTS - 1;
+    private static final int MIN_SEGMENT_INTS = 1 << 14;
+    private static final int MAX_SEGMENTS = 1 << 12;
+
+    private final ByteBuffer[] buffers = new ByteBuffer[MAX_SEGMENTS];
+    private final IntBuffer[] segments = new IntBuffer[MAX_SEGMENTS];
+    private int segmentCount;
+    private long size;
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public int get(long index) {
+        Objects.checkIndex(index, size);
+        return segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & SEGMENT_MASK));
+    }
+
+    @Override
+    public void set(long index, int value) {
+        Objects.checkIndex(index, size);
+        segments[(int) (index >>> SEGMENT_SHIFT)].put((int) (index & SEGMENT_MASK), value);
+    }
+
+    @Override
+    public void accept(int value) {
+        int segment = (int) (size >>> SEGMENT_SHIFT);
+        int slot = (int) (size & SEGMENT_MASK);
+        if (segment == segmentCount) {
+            addSegment(MIN_SEGMENT_INTS);
+        } else if (slot == segments[segment].capacity()) {
+            resizeSegment(segment, Math.min(Math.max(slot * 2, MIN_SEGMENT_INTS), SEGMENT_INTS));
+        }
+        segments[segment].put(slot, value);
+        size++;
+    }
+
+    private void addSegment(int capacityInts) {
+        if (segmentCount == MAX_SEGMENTS) {
+            throw new IllegalStateException("Storage is full at " + MAX_SEGMENTS + " segments");
+        }
+        resizeSegment(segmentCount++, capacityInts);
+    }
+
+    // Takes over values already present in the backing store up to count, covering them with
+    // segments of exactly their size: the last partial segment is resized, then new ones added
+    final void adopt(long count) {
+        while (size < count) {
+            int segment = (int) (size >>> SEGMENT_SHIFT);
+            int slot = (int) (size & SEGMENT_MASK);
+            int segmentInts = (int) Math.min(slot + (count - size), SEGMENT_INTS);
+            if (segment == segmentCount) {
+                addSegment(segmentInts);
+            } else {
+                resizeSegment(segment, segmentInts);
+            }
+            size += segmentInts - slot;
+        }
+    }
+
+    final void forEachBuffer(Consumer<ByteBuffer> action) {
+        for (int segment = 0; segment < segmentCount; segment++) {
+            action.accept(buffers[segment]);
+        }
+    }
+
+    private void resizeSegment(int segment, int capacityInts) {
+        ByteBuffer buffer;
+        try {
+            buffer = resize(segment, buffers[segment], capacityInts * Integer.BYTES);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffers[segment] = buffer;
+        segments[segment] = buffer.asIntBuffer();
+    }
+
+    // Returns a buffer of the given size for the segment holding the contents of the previous one, if any
+    abstract ByteBuffer resize(int segment, ByteBuffer previous, int capacityBytes) throws IOException;
+
+    final void release() {
+        Arrays.fill(buffers, 0, segmentCount, null);
+        Arrays.fill(segments, 0, segmentCount, null);
+        segmentCount = 0;
+        size = 0;
+    }
+
+    /** Direct memory, freed by the garbage collector once the buffers are unreachable. */
+    static final class Direct extends SegmentedIntStorage {
+        @Override
+        ByteBuffer resize(int segment, ByteBuffer previous, int capacityBytes) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(capacityBytes);
+            if (previous != null) {
+                buffer.put(previous.clear());
+                buffer.clear();
+            }
+            return buffer;
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+    }
+
+    /**
+     * A file mapped segment by segment, only ever over data it already holds.
+     * Appended values are buffered and written to the end of the file, and
+     * are mapped on the next get or set; so the file never has slack to cut
+     * off, which Windows refuses to do while a mapping is live.
+     */
+    static final class Mapped extends SegmentedIntStorage {
+        private static final int APPEND_BUFFER_BYTES = 64 * 1024;
+
+        private final FileChannel channel;
+        private final ByteBuffer appended = ByteBuffer.allocateDirect(APPEND_BUFFER_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        private long fileInts;
+
+        Mapped(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            fileInts = channel.size() / Integer.BYTES;
+            adopt(fileInts);
+        }
+
+        @Override
+        public long size() {
+            return fileInts + appended.position() / Integer.BYTES;
+        }
+
+        @Override
+        public int get(long index) {
+            if (size() != super.size()) {
+                mapAppended();
+            }
+            return super.get(index);
+        }
+
+        @Override
+        public void set(long index, int value) {
+            if (size() != super.size()) {
+                mapAppended();
+            }
+            super.set(index, value);
+        }
+
+        @Override
+        public void accept(int value) {
+            if (!appended.hasRemaining()) {
+                writeAppended();
+            }
+            appended.putInt(value);
+        }
+
+        private void mapAppended() {
+            writeAppended();
+            adopt(fileInts);
+        }
+
+        private void writeAppended() {
+            appended.flip();
+            try {
+                long position = fileInts * Integer.BYTES;
+                while (appended.hasRemaining()) {
+                    position += channel.write(appended, position);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            fileInts += appended.limit() / Integer.BYTES;
+            appended.clear();
+        }
+
+        @Override
+        ByteBuffer resize(int segment, ByteBuffer previous, int capacityBytes) throws IOException {
+            // The data is already in the file, so the larger mapping simply covers it again
+            return channel.map(FileChannel.MapMode.READ_WRITE, (long) segment * SEGMENT_INTS * Integer.BYTES,
+                capacityBytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!channel.isOpen()) {
+                return;
+            }
+            try {
+                writeAppended();
+                forEachBuffer(buffer -> ((MappedByteBuffer) buffer).force());
+                release();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example;
+
+/**
+ * Sorts one input once with each {@link SiftDownStrategy}, with otherwise
+ * identical settings and no listener, and reports the sort phase of both
+ * runs side by side. The build phase is the same for both and left out.
+ */
+public final class SiftDownComparison {
+    private final HeapSortStats[] stats = new HeapSortStats[SiftDownStrategy.values().length];
+
+    private SiftDownComparison() {
+    }
+
+    public static SiftDownComparison run(int[] input, HeapBuildStrategy buildStrategy, int arity, int topK) {
+        SiftDownComparison comparison = new SiftDownComparison();
+        HeapSortEngine engine = new HeapSortEngine();
+        engine.setBuildStrategy(buildStrategy);
+        engine.setArity(arity);
+        engine.setTopK(topK);
+        for (SiftDownStrategy strategy : SiftDownStrategy.values()) {
+            engine.setSiftDownStrategy(strategy);
+            engine.sort(input);
+            comparison.stats[strategy.ordinal()] = engine.getStats().copy();
+        }
+        return comparison;
+    }
+
+    public HeapSortStats stats(SiftDownStrategy strategy) {
+        return stats[strategy.ordinal()];
+    }
+
+    // Sort phase comparisons of the bottom-up sift relative to the classic one, e.g. 0.53
+    public double comparisonRatio() {
+        long classic = stats(SiftDownStrategy.CLASSIC).getComparisons(HeapSortPhase.SORT);
+        return classic == 0 ? 1 : (double) stats(SiftDownStrategy.BOTTOM_UP).getComparisons(HeapSortPhase.SORT) / classic;
+    }
+
+    // Multi-line table of the sort phase per strategy, for monospace display
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format("%-20s %14s %14s %10s%n",
+            "Sort phase", "Comparisons", "Swaps", "Time (ms)"));
+        for (SiftDownStrategy strategy : SiftDownStrategy.values()) {
+            HeapSortStats strategyStats = stats(strategy);
+            table.append(String.format("%-20s %14d %14d %10.2f%n", strategy,
+                strategyStats.getComparisons(HeapSortPhase.SORT), strategyStats.getSwaps(HeapSortPhase.SORT),
+                strategyStats.getNanos(HeapSortPhase.SORT) / 1e6));
+        }
+        table.append(String.format("Bottom-up needs %.1f%% of the classic comparisons", 100 * comparisonRatio()));
+        return table.toString();
+    }
+}
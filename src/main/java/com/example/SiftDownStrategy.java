@@ -0,0 +1,20 @@
+package com.example;
+
+public enum SiftDownStrategy {
+    // Compare all children against the sifted node at every level: d comparisons per level
+    CLASSIC("Classic"),
+    // Wegener's bottom-up sift: descend along the larger children to a leaf, then climb back
+    // to where the sifted node belongs; about d - 1 comparisons per level plus a short climb
+    BOTTOM_UP("Bottom-up (Wegener)");
+
+    private final String displayName;
+
+    SiftDownStrategy(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
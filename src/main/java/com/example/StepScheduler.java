@@ -0,0 +1,119 @@
+package com.example;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Auto-play clock driven by the JavaFX pulse. On every frame it works out
+ * which trace step is due from the wall-clock time elapsed since play started
+ * and the chosen rate, so pacing does not drift with frame timing. While a
+ * step lasts long enough to be animated, one tweened step is played at a time
+ * and a tween that runs over its slot delays the following steps instead of
+ * skipping them. At higher rates every step that falls into a frame is applied
+ * at once and drawn a single time, which makes rates of thousands of steps per
+ * second possible.
+ */
+public class StepScheduler extends AnimationTimer {
+    // Steps shorter than this are shown without tweens
+    public static final double MIN_TWEEN_SECONDS = 0.1;
+
+    /** What the scheduler plays; all calls are made on the FX application thread. */
+    public interface Target {
+        int position();
+
+        // Last step that can be shown right now
+        int lastAvailableStep();
+
+        // Whether more steps are still being generated
+        boolean hasPendingSteps();
+
+        // Whether a tweened step started earlier is still running
+        boolean isAnimating();
+
+        // Tween from position() to the next step
+        void animateNextStep();
+
+        // Show the given step directly, without tweens
+        void jumpTo(int step);
+
+        // Called once the last step has been reached and auto-play stopped
+        void finished();
+    }
+
+    private final Target target;
+    private double stepsPerSecond = 2;
+    // The step that was due at anchorNanos; -1 until the first frame after start()
+    private long anchorNanos = -1;
+    private double anchorStep;
+    private long lastFrameNanos;
+
+    public StepScheduler(Target target) {
+        this.target = target;
+    }
+
+    public double getStepsPerSecond() {
+        return stepsPerSecond;
+    }
+
+    public void setStepsPerSecond(double stepsPerSecond) {
+        if (anchorNanos >= 0) {
+            // Keep the current position and continue at the new rate from here
+            anchorStep = dueStep(lastFrameNanos);
+            anchorNanos = lastFrameNanos;
+        }
+        this.stepsPerSecond = stepsPerSecond;
+    }
+
+    // Whether steps at the current rate last long enough to be animated
+    public boolean isTweening() {
+        return 1 / stepsPerSecond >= MIN_TWEEN_SECONDS;
+    }
+
+    @Override
+    public void start() {
+        anchorNanos = -1;
+        super.start();
+    }
+
+    @Override
+    public void handle(long now) {
+        lastFrameNanos = now;
+        int position = target.position();
+        if (anchorNanos < 0 || target.isAnimating()) {
+            if (anchorNanos < 0) {
+                anchorNanos = now;
+                anchorStep = position;
+            }
+            return;
+        }
+        int lastStep = target.lastAvailableStep();
+        if (position >= lastStep) {
+            if (target.hasPendingSteps()) {
+                // Waiting for the generator must not build up a backlog to skip over later
+                anchorNanos = now;
+                anchorStep = position;
+            } else {
+                stop();
+                target.finished();
+            }
+            return;
+        }
+        int due = (int) Math.min(dueStep(now), lastStep);
+        if (due <= position) {
+            return;
+        }
+        if (isTweening()) {
+            if (due - position > 1) {
+                // The last tween ran longer than a step; restart the clock rather than skip steps
+                anchorNanos = now;
+                anchorStep = position + 1;
+            }
+            target.animateNextStep();
+        } else {
+            target.jumpTo(due);
+        }
+    }
+
+    private double dueStep(long now) {
+        return anchorStep + (now - anchorNanos) * stepsPerSecond / 1e9;
+    }
+}
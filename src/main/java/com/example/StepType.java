@@ -0,0 +1,39 @@
+package com.example;
+
+/**
+ * Kind of a recorded trace step, mirroring the {@link OperationLog} operation
+ * codes. The meaning of the step's two indices depends on the type.
+ */
+public enum StepType {
+    INSERT(OperationLog.INSERT),              // a = heap index the input element is placed at
+    COMPARE(OperationLog.COMPARE),            // a, b = compared heap indices; equal when a sift stops
+    SWAP(OperationLog.SWAP),                  // a, b = swapped heap indices
+    EXTRACT(OperationLog.EXTRACT),            // a = root, b = last heap index it is swapped with
+    HEAP_BUILT(OperationLog.HEAP_BUILT),      // marker, no indices
+    PLACE_SORTED(OperationLog.PLACE_SORTED);  // a = index placed in the sorted data array
+
+    private static final StepType[] BY_CODE = new StepType[values().length];
+
+    static {
+        for (StepType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+
+    StepType(int code) {
+        this.code = code;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    public static StepType of(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown step type code: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
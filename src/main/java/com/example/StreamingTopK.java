@@ -0,0 +1,114 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Keeps the k largest values of an unbounded stream in a fixed-capacity
+ * binary min-heap: the root is the smallest value kept, so a new value either
+ * loses against it or replaces it and is sifted down. Each value costs
+ * O(log k) and nothing is allocated after construction.
+ *
+ * <p>Values can be pushed by any producer through {@link #offer(int)} or the
+ * {@link IntConsumer} interface, e.g. straight from
+ * {@link IntInputParser#parse(java.nio.channels.ReadableByteChannel, IntConsumer)}.
+ * Instances are not thread-safe; feed them from one thread.
+ */
+public class StreamingTopK implements IntConsumer {
+    private final int[] heap;
+    private int size;
+    private long count; // Values offered so far
+
+    public StreamingTopK(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Top-k count must be at least 1: " + k);
+        }
+        heap = new int[k];
+    }
+
+    public void offer(int value) {
+        count++;
+        if (size < heap.length) {
+            siftUp(size++, value);
+        } else if (value > heap[0]) {
+            siftDown(value);
+        }
+    }
+
+    @Override
+    public void accept(int value) {
+        offer(value);
+    }
+
+    public int capacity() {
+        return heap.length;
+    }
+
+    // Number of values kept, at most the capacity
+    public int size() {
+        return size;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    // Smallest value kept, i.e. the k-th largest seen so far
+    public int min() {
+        if (size == 0) {
+            throw new NoSuchElementException("No values offered yet");
+        }
+        return heap[0];
+    }
+
+    // Copies the heap array (root first) into target and returns the number of values copied
+    public int copyHeapTo(int[] target) {
+        System.arraycopy(heap, 0, target, 0, size);
+        return size;
+    }
+
+    // The values kept, in ascending order
+    public int[] toSortedArray() {
+        int[] values = Arrays.copyOf(heap, size);
+        Arrays.sort(values);
+        return values;
+    }
+
+    public void clear() {
+        size = 0;
+        count = 0;
+    }
+
+    private void siftUp(int index, int value) {
+        // Move parents down into the hole until the value fits
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    // Replaces the root with the value and restores the min-heap property
+    private void siftDown(int value) {
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && heap[right] < heap[child]) {
+                child = right;
+            }
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+}
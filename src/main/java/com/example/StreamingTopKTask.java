@@ -0,0 +1,99 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import javafx.concurrent.Task;
+
+/**
+ * Feeds a value stream into a {@link StreamingTopK} on a worker thread and
+ * publishes copies of its heap to the FX application thread for the live
+ * view. Snapshots are taken at most every 50 ms and only the latest one is
+ * kept for the FX thread. The task's value is the number of values read.
+ */
+public class StreamingTopKTask extends Task<Long> {
+    private static final long PUBLISH_INTERVAL_NANOS = 50_000_000L;
+    private static final int CHECK_INTERVAL_MASK = 4095;
+
+    /** Source of an unbounded stream of values, pushed into the given consumer. */
+    @FunctionalInterface
+    public interface IntSource {
+        void feed(IntConsumer consumer) throws IOException;
+    }
+
+    private final StreamingTopK topK;
+    private final IntSource source;
+    private final LatestValuePublisher<HeapSnapshot> publisher;
+    private long startNanos;
+    private long lastPublish;
+
+    public StreamingTopKTask(StreamingTopK topK, IntSource source, Consumer<HeapSnapshot> snapshotConsumer) {
+        this.topK = topK;
+        this.source = source;
+        this.publisher = new LatestValuePublisher<>(snapshot -> {
+            if (!isCancelled()) {
+                snapshotConsumer.accept(snapshot);
+            }
+        });
+    }
+
+    // Integers separated by whitespace or commas, parsed as they are read
+    public static IntSource fromFile(Path path) {
+        return consumer -> {
+            try (FileChannel channel = FileChannel.open(path)) {
+                new IntInputParser().parse(channel, consumer);
+            }
+        };
+    }
+
+    // Uniformly distributed values until cancelled
+    public static IntSource random(long seed) {
+        return consumer -> {
+            Random random = new Random(seed);
+            while (true) {
+                consumer.accept(random.nextInt());
+            }
+        };
+    }
+
+    @Override
+    protected Long call() throws IOException {
+        startNanos = System.nanoTime();
+        lastPublish = startNanos;
+        try {
+            source.feed(value -> {
+                topK.offer(value);
+                if ((topK.count() & CHECK_INTERVAL_MASK) == 0) {
+                    checkpoint();
+                }
+            });
+        } catch (CancellationException ex) {
+            return topK.count();
+        }
+        publish(System.nanoTime());
+        return topK.count();
+    }
+
+    private void checkpoint() {
+        if (isCancelled()) {
+            // Unwinds the source's read loop
+            throw new CancellationException();
+        }
+        long now = System.nanoTime();
+        if (now - lastPublish >= PUBLISH_INTERVAL_NANOS) {
+            publish(now);
+        }
+    }
+
+    private void publish(long now) {
+        lastPublish = now;
+        int[] heap = new int[topK.capacity()];
+        int size = topK.copyHeapTo(heap);
+        updateValue(topK.count());
+        publisher.publish(new HeapSnapshot(heap, size, topK.count(), now - startNanos));
+    }
+}
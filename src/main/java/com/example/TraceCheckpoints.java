@@ -0,0 +1,88 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Heap snapshots taken every {@link #interval()} steps of a trace, so a
+ * {@link TraceCursor} can jump to any step by restoring the nearest snapshot
+ * and replaying only the operations in between. The snapshots are kept within
+ * a memory budget: when the budget would be exceeded, the interval is doubled
+ * and every snapshot that is no longer on the interval is evicted.
+ *
+ * <p>Snapshots are added by the thread generating the trace and read by the
+ * thread seeking through it, so all access is synchronized.
+ */
+public class TraceCheckpoints {
+    private static final int MIN_INTERVAL = 1024;
+    private static final int MIN_CHECKPOINTS = 2;
+    private static final long CHECKPOINT_OVERHEAD_BYTES = 64;
+
+    private final TreeMap<Integer, Checkpoint> checkpoints = new TreeMap<>();
+    private final int maxCheckpoints;
+    private int interval = MIN_INTERVAL;
+
+    public TraceCheckpoints(int elementCount, long budgetBytes) {
+        long checkpointBytes = 4L * elementCount + CHECKPOINT_OVERHEAD_BYTES;
+        this.maxCheckpoints = (int) Math.max(MIN_CHECKPOINTS, Math.min(Integer.MAX_VALUE, budgetBytes / checkpointBytes));
+    }
+
+    // Steps between two snapshots
+    public synchronized int interval() {
+        return interval;
+    }
+
+    // First step after the given one that should be snapshotted
+    public synchronized int nextStepAfter(int step) {
+        return (step / interval + 1) * interval;
+    }
+
+    public synchronized int size() {
+        return checkpoints.size();
+    }
+
+    /** Stores a copy of the heap state reached after {@code step} operations. */
+    public synchronized void add(int step, int[] heap, int heapSize, int sortedCount) {
+        if (step % interval != 0) {
+            return; // The interval grew since the caller planned this snapshot
+        }
+        checkpoints.put(step, new Checkpoint(step, heap.clone(), heapSize, sortedCount));
+        while (checkpoints.size() > maxCheckpoints) {
+            interval *= 2;
+            checkpoints.keySet().removeIf(s -> s % interval != 0);
+        }
+    }
+
+    // Latest snapshot at or before the step, or null if there is none
+    synchronized Checkpoint floor(int step) {
+        Map.Entry<Integer, Checkpoint> entry = checkpoints.floorEntry(step);
+        return entry == null ? null : entry.getValue();
+    }
+
+    // Earliest snapshot at or after the step, or null if there is none
+    synchronized Checkpoint ceiling(int step) {
+        Map.Entry<Integer, Checkpoint> entry = checkpoints.ceilingEntry(step);
+        return entry == null ? null : entry.getValue();
+    }
+
+    // All snapshots in step order
+    synchronized List<Checkpoint> list() {
+        return new ArrayList<>(checkpoints.values());
+    }
+
+    static final class Checkpoint {
+        final int step;
+        final int[] heap;
+        final int heapSize;
+        final int sortedCount;
+
+        Checkpoint(int step, int[] heap, int heapSize, int sortedCount) {
+            this.step = step;
+            this.heap = heap;
+            this.heapSize = heapSize;
+            this.sortedCount = sortedCount;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Rebuilds the heap state at any step of a {@link TraceSource} by applying
+ * operations forward and reverting them backward from the current position.
+ * With {@link TraceCheckpoints}, a seek first jumps to whichever snapshot
+ * (or the current position) is closest to the target, so the replay distance
+ * is bounded by half the checkpoint interval once snapshots exist.
+ *
+ * <p>The heap indices written since the last {@link #drainChanges} are
+ * recorded, so a view can redraw only those slots after a short seek.
+ */
+public class TraceCursor {
+    private static final int MAX_TRACKED_CHANGES = 256;
+
+    private final TraceSource log;
+    private final int[] input;
+    private final int[] heap;
+    private final TraceCheckpoints checkpoints;
+    private final int[] changes = new int[MAX_TRACKED_CHANGES];
+    private int heapSize;
+    private int sortedCount;
+    private int position;
+    private int changeCount;
+    private boolean changesLost; // Too many changes, or a snapshot restore
+
+    public TraceCursor(TraceSource log, int[] input) {
+        this(log, input, null);
+    }
+
+    public TraceCursor(TraceSource log, int[] input, TraceCheckpoints checkpoints) {
+        this.log = log;
+        this.input = input;
+        this.heap = new int[input.length];
+        this.checkpoints = checkpoints;
+    }
+
+    public void seek(int step) {
+        step = Math.max(0, Math.min(step, log.size()));
+        if (checkpoints != null) {
+            jumpToNearestCheckpoint(step);
+        }
+        while (position < step && position < log.size()) {
+            apply(position++);
+        }
+        while (position > step && position > 0) {
+            revert(--position);
+        }
+    }
+
+    private void jumpToNearestCheckpoint(int step) {
+        long distance = Math.abs((long) step - position);
+        TraceCheckpoints.Checkpoint floor = checkpoints.floor(step);
+        TraceCheckpoints.Checkpoint ceiling = checkpoints.ceiling(step);
+        if (ceiling != null && ceiling.step <= log.size() && ceiling.step - step < distance
+                && ceiling.step - step < step - (floor == null ? 0 : floor.step)) {
+            restore(ceiling);
+        } else if (floor != null && step - floor.step < distance) {
+            restore(floor);
+        } else if (floor == null && step < distance) {
+            // The initial state acts as an implicit snapshot at step 0;
+            // slots beyond heapSize are never shown, so the array needs no reset
+            heapSize = 0;
+            sortedCount = 0;
+            position = 0;
+            changesLost = true;
+        }
+    }
+
+    private void restore(TraceCheckpoints.Checkpoint checkpoint) {
+        System.arraycopy(checkpoint.heap, 0, heap, 0, heap.length);
+        heapSize = checkpoint.heapSize;
+        sortedCount = checkpoint.sortedCount;
+        position = checkpoint.step;
+        changesLost = true;
+    }
+
+    private void apply(int step) {
+        int a = log.indexA(step);
+        int b = log.indexB(step);
+        switch (log.op(step)) {
+            case OperationLog.INSERT:
+                heap[a] = input[a];
+                heapSize = a + 1;
+                recordChange(a);
+                break;
+            case OperationLog.SWAP:
+            case OperationLog.EXTRACT:
+                swap(a, b);
+                break;
+            case OperationLog.PLACE_SORTED:
+                sortedCount = a + 1;
+                break;
+            default:
+                // COMPARE and HEAP_BUILT do not change the array
+                break;
+        }
+    }
+
+    private void revert(int step) {
+        int a = log.indexA(step);
+        int b = log.indexB(step);
+        switch (log.op(step)) {
+            case OperationLog.INSERT:
+                heapSize = a;
+                break;
+            case OperationLog.SWAP:
+            case OperationLog.EXTRACT:
+                swap(a, b);
+                break;
+            case OperationLog.PLACE_SORTED:
+                sortedCount = a;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int temp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = temp;
+        recordChange(a);
+        recordChange(b);
+    }
+
+    private void recordChange(int index) {
+        if (changeCount < changes.length) {
+            changes[changeCount++] = index;
+        } else {
+            changesLost = true;
+        }
+    }
+
+    /**
+     * Passes each heap index written since the last call to the consumer, in
+     * order and possibly repeated, and forgets them. Returns false instead if
+     * the changes were not all recorded, in which case any slot may differ.
+     */
+    public boolean drainChanges(IntConsumer consumer) {
+        boolean complete = !changesLost;
+        if (complete) {
+            for (int i = 0; i < changeCount; i++) {
+                consumer.accept(changes[i]);
+            }
+        }
+        changeCount = 0;
+        changesLost = false;
+        return complete;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public int[] heap() {
+        return heap;
+    }
+
+    public int heapSize() {
+        return heapSize;
+    }
+
+    public int sortedCount() {
+        return sortedCount;
+    }
+}
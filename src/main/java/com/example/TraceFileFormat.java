@@ -0,0 +1,54 @@
+package com.example;
+
+import java.nio.ByteOrder;
+
+/**
+ * Layout of the binary trace file written by {@link TraceFileWriter} and read
+ * by {@link MappedTraceFile}. All values are little-endian:
+ *
+ * <pre>
+ * header     104 bytes magic, version, element count, build strategy,
+ *                      step count, Max Heap step, footer offset,
+ *                      comparisons and swaps per phase, heap arity,
+ *                      top-k count (0 for a full sort), extraction
+ *                      sift-down strategy, 4 reserved bytes
+ * input      4 * n     the unsorted input, padded to 8 bytes
+ * records    8 * steps one encoded {@link OperationLog} record per step, so
+ *                      the offset of a step is computed directly
+ * footer               snapshot count, then per snapshot: step, heap size,
+ *                      sorted count and n heap values
+ * </pre>
+ *
+ * The header is written last, so a file with an unpatched header (version 0)
+ * is recognized as incomplete.
+ */
+final class TraceFileFormat {
+    static final int MAGIC = 0x52545348; // "HSTR" in file byte order
+    static final int VERSION = 1;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int ELEMENT_COUNT_OFFSET = 8;
+    static final int BUILD_STRATEGY_OFFSET = 12;
+    static final int STEP_COUNT_OFFSET = 16;
+    static final int HEAP_BUILT_STEP_OFFSET = 24;
+    static final int FOOTER_OFFSET_OFFSET = 32;
+    static final int STATS_OFFSET = 40; // comparisons and swaps for each phase
+    static final int ARITY_OFFSET = 88;
+    static final int TOP_K_OFFSET = 92;
+    static final int SIFT_DOWN_OFFSET = 96;
+    static final int HEADER_SIZE = 104;
+
+    static final int RECORD_SIZE = Long.BYTES;
+    static final int SNAPSHOT_HEADER_SIZE = 3 * Integer.BYTES;
+
+    private TraceFileFormat() {
+    }
+
+    // Offset of the first step record for a trace of n elements
+    static long recordsOffset(int elementCount) {
+        long inputEnd = HEADER_SIZE + 4L * elementCount;
+        return (inputEnd + RECORD_SIZE - 1) / RECORD_SIZE * RECORD_SIZE;
+    }
+}
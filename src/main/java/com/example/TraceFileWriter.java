@@ -0,0 +1,178 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Streams a heap sort trace to a binary file in the {@link TraceFileFormat}
+ * layout. Subscribe it to a {@link HeapSortEngine}; records are buffered and
+ * written sequentially, so memory use does not grow with the trace length.
+ * {@link #finish(HeapSortStats, TraceCheckpoints)} appends the snapshots and
+ * writes the header, which marks the file complete.
+ */
+public class TraceFileWriter implements HeapSortListener, AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(TraceFileFormat.BYTE_ORDER);
+    private final int elementCount;
+    private final HeapBuildStrategy buildStrategy;
+    private final int arity;
+    private final int topK;
+    private final SiftDownStrategy siftDownStrategy;
+    private long stepCount;
+    private long heapBuiltStep = -1;
+
+    public TraceFileWriter(Path path, int[] input, HeapBuildStrategy buildStrategy, int arity,
+                           int topK, SiftDownStrategy siftDownStrategy) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        this.elementCount = input.length;
+        this.buildStrategy = buildStrategy;
+        this.arity = arity;
+        this.topK = topK;
+        this.siftDownStrategy = siftDownStrategy;
+        // Leave the header zeroed until the trace is complete
+        buffer.position(TraceFileFormat.HEADER_SIZE);
+        for (int value : input) {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+        }
+        long padding = TraceFileFormat.recordsOffset(elementCount)
+            - TraceFileFormat.HEADER_SIZE - 4L * elementCount;
+        for (long i = 0; i < padding; i++) {
+            ensureRemaining(1);
+            buffer.put((byte) 0);
+        }
+    }
+
+    /**
+     * Sorts the input with the given engine while recording the whole trace
+     * into a file, with snapshots kept within the given budget. Returns the
+     * sorted array; statistics are available from the engine.
+     */
+    public static int[] record(Path path, HeapSortEngine engine, int[] input,
+                               long checkpointBudgetBytes) throws IOException {
+        TraceCheckpoints checkpoints = new TraceCheckpoints(input.length, checkpointBudgetBytes);
+        int[] sorted;
+        try (TraceFileWriter writer = new TraceFileWriter(path, input, engine.getBuildStrategy(), engine.getArity(),
+                engine.getTopK(), engine.getSiftDownStrategy())) {
+            engine.setListener(new CheckpointRecorder(engine, checkpoints, writer));
+            sorted = engine.sort(input);
+            writer.finish(engine.getStats(), checkpoints);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause(); // Raised from a listener callback
+        } finally {
+            engine.setListener(null);
+        }
+        return sorted;
+    }
+
+    private void add(int op, int a, int b) {
+        ensureRemaining(TraceFileFormat.RECORD_SIZE);
+        buffer.putLong(OperationLog.encode(op, a, b));
+        stepCount++;
+    }
+
+    @Override
+    public void onInsert(int index, int value) {
+        add(OperationLog.INSERT, index, 0);
+    }
+
+    @Override
+    public void onCompare(int index1, int index2) {
+        add(OperationLog.COMPARE, index1, index2);
+    }
+
+    @Override
+    public void onSwap(int index1, int index2) {
+        add(OperationLog.SWAP, index1, index2);
+    }
+
+    @Override
+    public void onHeapBuilt() {
+        add(OperationLog.HEAP_BUILT, 0, 0);
+        heapBuiltStep = stepCount;
+    }
+
+    @Override
+    public void onExtract(int rootIndex, int lastIndex) {
+        add(OperationLog.EXTRACT, rootIndex, lastIndex);
+    }
+
+    @Override
+    public void onPlaced(int index, int value) {
+        add(OperationLog.PLACE_SORTED, index, 0);
+    }
+
+    /** Writes the snapshot footer and the header; the writer must still be closed. */
+    public void finish(HeapSortStats stats, TraceCheckpoints checkpoints) throws IOException {
+        long footerOffset = TraceFileFormat.recordsOffset(elementCount)
+            + stepCount * TraceFileFormat.RECORD_SIZE;
+        ensureRemaining(Integer.BYTES);
+        if (checkpoints == null) {
+            buffer.putInt(0);
+        } else {
+            List<TraceCheckpoints.Checkpoint> snapshots = checkpoints.list();
+            buffer.putInt(snapshots.size());
+            for (TraceCheckpoints.Checkpoint checkpoint : snapshots) {
+                ensureRemaining(TraceFileFormat.SNAPSHOT_HEADER_SIZE);
+                buffer.putInt(checkpoint.step).putInt(checkpoint.heapSize).putInt(checkpoint.sortedCount);
+                for (int value : checkpoint.heap) {
+                    ensureRemaining(Integer.BYTES);
+                    buffer.putInt(value);
+                }
+            }
+        }
+        flush();
+
+        ByteBuffer header = ByteBuffer.allocate(TraceFileFormat.HEADER_SIZE).order(TraceFileFormat.BYTE_ORDER);
+        header.putInt(TraceFileFormat.MAGIC_OFFSET, TraceFileFormat.MAGIC);
+        header.putInt(TraceFileFormat.VERSION_OFFSET, TraceFileFormat.VERSION);
+        header.putInt(TraceFileFormat.ELEMENT_COUNT_OFFSET, elementCount);
+        header.putInt(TraceFileFormat.BUILD_STRATEGY_OFFSET, buildStrategy.ordinal());
+        header.putLong(TraceFileFormat.STEP_COUNT_OFFSET, stepCount);
+        header.putLong(TraceFileFormat.HEAP_BUILT_STEP_OFFSET, heapBuiltStep);
+        header.putLong(TraceFileFormat.FOOTER_OFFSET_OFFSET, footerOffset);
+        header.putInt(TraceFileFormat.ARITY_OFFSET, arity);
+        header.putInt(TraceFileFormat.TOP_K_OFFSET, topK);
+        header.putInt(TraceFileFormat.SIFT_DOWN_OFFSET, siftDownStrategy.ordinal());
+        int offset = TraceFileFormat.STATS_OFFSET;
+        for (HeapSortPhase phase : HeapSortPhase.values()) {
+            header.putLong(offset, stats.getComparisons(phase));
+            header.putLong(offset + Long.BYTES, stats.getSwaps(phase));
+            offset += 2 * Long.BYTES;
+        }
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    private void ensureRemaining(int bytes) {
+        if (buffer.remaining() < bytes) {
+            try {
+                flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+/**
+ * Runs the heap sort engine on a worker thread and publishes the recorded
+ * steps to the FX application thread in batches, so the visualizer can show
+ * the first steps while the rest of the trace is still being generated.
+ * Generation stays at most {@link #LOOKAHEAD_STEPS} ahead of the step on
+ * screen: the worker pauses there until {@link #showingStep(int)} reports
+ * that the viewer has moved on, so the recorded trace grows with navigation
+ * rather than with the whole sort. The task stops at the next batch boundary
+ * when cancelled. Heap snapshots for
+ * random seeking are taken by a {@link CheckpointRecorder} as the trace passes
+ * each checkpoint step. The task's value is a copy of the engine's counters,
+ * refreshed with every published batch and final once the task succeeds.
+ */
+public class TraceGenerationTask extends Task<HeapSortStats> {
+    private static final int BATCH_SIZE = 1 << 16;
+    private static final long FLUSH_INTERVAL_NANOS = 50_000_000L;
+    private static final int MAX_PENDING_BATCHES = 4;
+    private static final int CHECK_INTERVAL_MASK = 1023;
+    static final int LOOKAHEAD_STEPS = BATCH_SIZE; // Steps recorded beyond the one on screen
+
+    private final HeapSortEngine engine;
+    private final int[] input;
+    private final Consumer<OperationLog> batchConsumer;
+    private final TraceCheckpoints checkpoints;
+    // Bounds the number of batches waiting for the FX thread
+    private final Semaphore pendingBatches = new Semaphore(MAX_PENDING_BATCHES);
+    private OperationLog batch = new OperationLog();
+    private int publishedSteps;
+    // Steps the worker may record before it waits for the viewer; raised from the FX thread
+    private volatile int demandedSteps = LOOKAHEAD_STEPS;
+
+    // The engine is configured by the caller and then used only by the worker thread
+    public TraceGenerationTask(HeapSortEngine engine, int[] input, TraceCheckpoints checkpoints,
+                               Consumer<OperationLog> batchConsumer) {
+        this.engine = engine;
+        this.input = input;
+        this.checkpoints = checkpoints;
+        this.batchConsumer = batchConsumer;
+    }
+
+    @Override
+    protected HeapSortStats call() throws InterruptedException {
+        CheckpointRecorder recorder = new CheckpointRecorder(engine, checkpoints, new BatchRecorder());
+        engine.setListener(recorder);
+        engine.start(input);
+
+        // Progress counts inserted, extracted and placed elements
+        long totalMilestones = input.length + 2L * engine.resultSize(input.length);
+        long lastFlush = System.nanoTime();
+        int steps = 0;
+        while (engine.step()) {
+            if ((++steps & CHECK_INTERVAL_MASK) == 0 || batch.size() >= BATCH_SIZE) {
+                if (isCancelled()) {
+                    return null;
+                }
+                int recordedSteps = publishedSteps + batch.size();
+                boolean ahead = recordedSteps >= demandedSteps;
+                // Publish full batches, and partial ones often enough for the first steps to appear quickly
+                if (ahead || batch.size() >= BATCH_SIZE || System.nanoTime() - lastFlush > FLUSH_INTERVAL_NANOS) {
+                    publish();
+                    lastFlush = System.nanoTime();
+                    updateProgress((long) recorder.heapSize() + recorder.extractedCount() + recorder.sortedCount(),
+                        totalMilestones);
+                    updateValue(engine.snapshotStats());
+                }
+                if (ahead) {
+                    awaitDemand(recordedSteps);
+                }
+            }
+        }
+        publish();
+        updateProgress(totalMilestones, totalMilestones);
+        return engine.getStats();
+    }
+
+    /** Lets the worker record up to {@link #LOOKAHEAD_STEPS} steps beyond the given one. */
+    public synchronized void showingStep(int step) {
+        int demand = (int) Math.min(Integer.MAX_VALUE, (long) step + LOOKAHEAD_STEPS);
+        if (demand > demandedSteps) {
+            demandedSteps = demand;
+            notifyAll();
+        }
+    }
+
+    // Cancelling the task interrupts the wait
+    private synchronized void awaitDemand(int recordedSteps) throws InterruptedException {
+        while (recordedSteps >= demandedSteps) {
+            wait();
+        }
+    }
+
+    private void publish() throws InterruptedException {
+        if (batch.size() == 0) {
+            return;
+        }
+        publishedSteps += batch.size();
+        OperationLog published = batch;
+        batch = new OperationLog();
+        pendingBatches.acquire();
+        Platform.runLater(() -> {
+            try {
+                if (!isCancelled()) {
+                    batchConsumer.accept(published);
+                }
+            } finally {
+                pendingBatches.release();
+            }
+        });
+    }
+
+    // Records engine events into the current batch
+    private class BatchRecorder implements HeapSortListener {
+        @Override
+        public void onInsert(int index, int value) {
+            batch.onInsert(index, value);
+        }
+
+        @Override
+        public void onCompare(int index1, int index2) {
+            batch.onCompare(index1, index2);
+        }
+
+        @Override
+        public void onSwap(int index1, int index2) {
+            batch.onSwap(index1, index2);
+        }
+
+        @Override
+        public void onHeapBuilt() {
+            batch.onHeapBuilt();
+        }
+
+        @Override
+        public void onExtract(int rootIndex, int lastIndex) {
+            batch.onExtract(rootIndex, lastIndex);
+        }
+
+        @Override
+        public void onPlaced(int index, int value) {
+            batch.onPlaced(index, value);
+        }
+    }
+}
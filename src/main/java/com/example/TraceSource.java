@@ -0,0 +1,25 @@
+package com.example;
+
+/**
+ * Read access to a recorded heap sort trace, indexed by step. Implemented by
+ * the in-memory {@link OperationLog} and by the memory-mapped
+ * {@link MappedTraceFile}, so {@link TraceCursor} can replay either.
+ */
+public interface TraceSource {
+    // Number of recorded operations
+    int size();
+
+    // Operation code of the step, one of the OperationLog constants
+    int op(int step);
+
+    default StepType type(int step) {
+        return StepType.of(op(step));
+    }
+
+    int indexA(int step);
+
+    int indexB(int step);
+
+    // Step index of the completed Max Heap, or -1 before it is built
+    int heapBuiltStep();
+}
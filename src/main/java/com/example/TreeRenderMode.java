@@ -0,0 +1,19 @@
+package com.example;
+
+public enum TreeRenderMode {
+    // Canvas for large heaps, scene-graph nodes (with full animations) for small ones
+    AUTO("Auto"),
+    SCENE_GRAPH("Nodes"),
+    CANVAS("Canvas");
+
+    private final String displayName;
+
+    TreeRenderMode(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
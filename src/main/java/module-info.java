@@ -1,6 +1,9 @@
 module heap.sort.visualizer {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.logging;
+    requires java.management;
+    requires jdk.management;
 
     opens com.example to javafx.fxml;
     exports com.example;
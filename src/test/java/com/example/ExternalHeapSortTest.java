@@ -0,0 +1,111 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ExternalHeapSortTest {
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @CsvSource({
+        "50000, 1000, FLOYD, 2, CLASSIC",
+        "50000, 999, INSERTION, 4, BOTTOM_UP",
+        "10000, 10000, FLOYD, 8, CLASSIC", // a single run
+        "2000, 1, FLOYD, 2, CLASSIC"       // one run per value
+    })
+    void mergesTheRunsIntoSortedOutput(int count, int chunkSize, HeapBuildStrategy buildStrategy, int arity,
+                                      SiftDownStrategy siftDownStrategy) throws IOException {
+        int[] values = new Random(count).ints(count, -10_000, 10_000).toArray();
+        IntStorageHeapSort runSorter = new IntStorageHeapSort();
+        runSorter.setBuildStrategy(buildStrategy);
+        runSorter.setArity(arity);
+        runSorter.setSiftDownStrategy(siftDownStrategy);
+        int[] runLengths = new int[1];
+        ExternalHeapSort sorter = new ExternalHeapSort(runSorter, chunkSize, dir);
+        sorter.setObserver(new ExternalHeapSort.Observer() {
+            @Override
+            public void runWritten(int runIndex, int length, long inputBytes) {
+                runLengths[0] += length;
+            }
+        });
+
+        ExternalSortStats stats = sort(sorter, values);
+
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, readOutput());
+        assertEquals(count, stats.getElements());
+        assertEquals(count, runLengths[0]);
+        assertEquals((count + chunkSize - 1) / chunkSize, stats.getRunCount());
+        assertEquals(4L * count, stats.getRunBytes());
+        assertEquals(Files.size(dir.resolve("out.txt")), stats.getOutputBytes());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"2, 9", "4, 5", "64, 2", "500, 1"})
+    void mergesInPassesAboveTheMaxFanIn(int maxFanIn, int passes) throws IOException {
+        // 500 runs of 100 values
+        int[] values = new Random(maxFanIn).ints(50_000).toArray();
+        ExternalHeapSort sorter = new ExternalHeapSort(new IntStorageHeapSort(), 100, dir);
+        sorter.setMaxFanIn(maxFanIn);
+        int[] passesStarted = new int[1];
+        sorter.setObserver(new ExternalHeapSort.Observer() {
+            @Override
+            public void mergePassStarted(int pass, int passCount, int runCount) {
+                assertEquals(passesStarted[0]++, pass);
+                assertEquals(passes, passCount);
+            }
+        });
+
+        ExternalSortStats stats = sort(sorter, values);
+
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, readOutput());
+        assertEquals(500, stats.getRunCount());
+        assertEquals(passes, stats.getMergePasses());
+        assertEquals(passes, passesStarted[0]);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.allMatch(file -> file.getFileName().toString().endsWith(".txt")));
+        }
+    }
+
+    @Test
+    void sortsEmptyInputIntoAnEmptyFile() throws IOException {
+        ExternalSortStats stats = sort(new ExternalHeapSort(new IntStorageHeapSort(), 16, dir), new int[0]);
+        assertEquals(0, stats.getRunCount());
+        assertEquals(0, Files.size(dir.resolve("out.txt")));
+    }
+
+    @Test
+    void removesTheRunFiles() throws IOException {
+        sort(new ExternalHeapSort(new IntStorageHeapSort(), 100, dir), new Random(1).ints(1_000).toArray());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.allMatch(file -> file.getFileName().toString().endsWith(".txt")));
+        }
+    }
+
+    private ExternalSortStats sort(ExternalHeapSort sorter, int[] values) throws IOException {
+        Path input = dir.resolve("in.txt");
+        Files.writeString(input, Arrays.stream(values).mapToObj(String::valueOf).collect(Collectors.joining(" ")));
+        return sorter.sort(input, dir.resolve("out.txt"));
+    }
+
+    private int[] readOutput() throws IOException {
+        return new IntInputParser().parse(dir.resolve("out.txt"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class IntInputParserTest {
+    private final IntInputParser parser = new IntInputParser();
+
+    @Test
+    void parsesWhitespaceAndCommaSeparatedValues() throws IOException {
+        assertArrayEquals(new int[] {3, -1, 42, 0, 7, 8},
+            parser.parse(" 3,-1\t42\r\n+0,,7 \n8"));
+        assertArrayEquals(new int[0], parser.parse(" \n, "));
+    }
+
+    @Test
+    void acceptsTheFullIntRange() throws IOException {
+        assertArrayEquals(new int[] {Integer.MIN_VALUE, Integer.MAX_VALUE},
+            parser.parse("-2147483648 2147483647"));
+    }
+
+    @Test
+    void reportsTheOffsetOfAnUnexpectedCharacter() {
+        assertOffset("12 3x4", 4);
+        assertOffset("12-3", 2);
+        assertOffset("1 --2", 3);
+    }
+
+    @Test
+    void reportsTheStartOfANumberOutOfRange() {
+        assertOffset("1 2147483648", 2);
+        assertOffset("0, -2147483649", 3);
+        assertOffset("99999999999999999999", 0);
+    }
+
+    @Test
+    void reportsTheOffsetOfASignWithoutDigits() {
+        assertOffset("1 - 2", 2);
+        assertOffset("5 +", 2);
+    }
+
+    @Test
+    void reportsOffsetsAcrossBufferBoundaries() {
+        // The buffer holds 64 KB, so the bad character lands in the second read
+        String valid = "1 ".repeat(40_000);
+        IntInputParser.IntParseException ex = assertThrows(IntInputParser.IntParseException.class,
+            () -> parser.parse(channel(valid + "12?")));
+        assertEquals(valid.length() + 2, ex.getOffset());
+    }
+
+    @Test
+    void streamsLargeInputInOrder() throws IOException {
+        int[] values = new Random(7).ints(200_000).toArray();
+        String text = Arrays.stream(values).mapToObj(String::valueOf).collect(Collectors.joining("\n"));
+        assertArrayEquals(values, parser.parse(channel(text)));
+    }
+
+    private void assertOffset(String text, long offset) {
+        IntInputParser.IntParseException ex = assertThrows(IntInputParser.IntParseException.class,
+            () -> parser.parse(text));
+        assertEquals(offset, ex.getOffset(), ex.getMessage());
+    }
+
+    private static ReadableByteChannel channel(String text) {
+        return Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class IntStorageTest {
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "direct", "mapped"})
+    void storesAppendedValues(String backend) throws IOException {
+        // Enough values to grow the first segment several times
+        int[] values = new Random(1).ints(100_000).toArray();
+        try (IntStorage storage = open(backend)) {
+            Arrays.stream(values).forEach(storage);
+            assertEquals(values.length, storage.size());
+            assertArrayEquals(values, toArray(storage));
+
+            storage.set(5, 42);
+            assertEquals(42, storage.get(5));
+            assertThrows(IndexOutOfBoundsException.class, () -> storage.get(values.length));
+            assertThrows(IndexOutOfBoundsException.class, () -> storage.set(-1, 0));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "heap, FLOYD, 2, CLASSIC",
+        "heap, INSERTION, 4, BOTTOM_UP",
+        "direct, FLOYD, 4, CLASSIC",
+        "direct, INSERTION, 2, BOTTOM_UP",
+        "mapped, INSERTION, 8, CLASSIC",
+        "mapped, FLOYD, 2, BOTTOM_UP"
+    })
+    void sortsInPlaceLikeTheEngine(String backend, HeapBuildStrategy buildStrategy, int arity,
+                                   SiftDownStrategy siftDownStrategy) throws IOException {
+        int[] values = new Random(arity).ints(50_000, -1_000, 1_000).toArray();
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+        HeapSortEngine engine = new HeapSortEngine();
+        engine.setBuildStrategy(buildStrategy);
+        engine.setArity(arity);
+        engine.setSiftDownStrategy(siftDownStrategy);
+        engine.sort(values);
+
+        IntStorageHeapSort sorter = new IntStorageHeapSort();
+        sorter.setBuildStrategy(buildStrategy);
+        sorter.setArity(arity);
+        sorter.setSiftDownStrategy(siftDownStrategy);
+        try (IntStorage storage = open(backend)) {
+            Arrays.stream(values).forEach(storage);
+            sorter.sort(storage);
+            assertArrayEquals(expected, toArray(storage));
+        }
+        // Same algorithm, so the same counts as the engine
+        for (HeapSortPhase phase : HeapSortPhase.values()) {
+            assertEquals(engine.getStats().getComparisons(phase), sorter.getStats().getComparisons(phase), phase.name());
+            assertEquals(engine.getStats().getSwaps(phase), sorter.getStats().getSwaps(phase), phase.name());
+        }
+    }
+
+    @Test
+    void sortsAWrappedArrayInPlace() {
+        int[] values = new Random(2).ints(10_000).toArray();
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+        new IntStorageHeapSort().sort(IntStorage.onHeap(values));
+        assertArrayEquals(expected, values);
+    }
+
+    @Test
+    void mappedFileKeepsTheValuesAfterClose() throws IOException {
+        Path file = dir.resolve("values.bin");
+        int[] values = new Random(3).ints(70_000).toArray();
+        try (IntStorage storage = IntStorage.mapped(file)) {
+            Arrays.stream(values).forEach(storage);
+        }
+        // Only the values are written, with no mapping slack to cut off
+        assertEquals(4L * values.length, Files.size(file));
+
+        try (IntStorage storage = IntStorage.mapped(file)) {
+            assertArrayEquals(values, toArray(storage));
+            storage.accept(7);
+            assertEquals(values.length + 1, storage.size());
+            assertEquals(7, storage.get(values.length));
+        }
+        assertEquals(4L * values.length + 4, Files.size(file));
+    }
+
+    private IntStorage open(String backend) throws IOException {
+        switch (backend) {
+            case "direct":
+                return IntStorage.direct();
+            case "mapped":
+                return IntStorage.mapped(dir.resolve("storage.bin"));
+            default:
+                return IntStorage.onHeap();
+        }
+    }
+
+    private static int[] toArray(IntStorage storage) {
+        int[] values = new int[(int) storage.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = storage.get(i);
+        }
+        return values;
+    }
+}
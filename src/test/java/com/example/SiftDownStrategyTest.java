@@ -0,0 +1,94 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class SiftDownStrategyTest {
+    @ParameterizedTest
+    @CsvSource({
+        "INSERTION, 2, 0", "FLOYD, 2, 0", "FLOYD, 4, 0", "INSERTION, 8, 0",
+        "FLOYD, 2, 100", "INSERTION, 4, 1"
+    })
+    void bottomUpSortsLikeClassic(HeapBuildStrategy buildStrategy, int arity, int topK) {
+        for (int[] input : inputs()) {
+            HeapSortEngine classic = engine(buildStrategy, arity, topK, SiftDownStrategy.CLASSIC);
+            HeapSortEngine bottomUp = engine(buildStrategy, arity, topK, SiftDownStrategy.BOTTOM_UP);
+            int[] expected = input.clone();
+            Arrays.sort(expected);
+            int from = expected.length - classic.resultSize(expected.length);
+
+            int[] classicResult = classic.sort(input);
+            int[] bottomUpResult = bottomUp.sort(input);
+            assertArrayEquals(Arrays.copyOfRange(expected, from, expected.length),
+                Arrays.copyOfRange(classicResult, from, classicResult.length));
+            assertArrayEquals(Arrays.copyOfRange(expected, from, expected.length),
+                Arrays.copyOfRange(bottomUpResult, from, bottomUpResult.length));
+
+            // The build phase is shared; with distinct values both sifts also end at the same depth,
+            // while ties stop the classic sift higher up
+            HeapSortStats classicStats = classic.getStats();
+            HeapSortStats bottomUpStats = bottomUp.getStats();
+            assertEquals(classicStats.getComparisons(HeapSortPhase.BUILD), bottomUpStats.getComparisons(HeapSortPhase.BUILD));
+            if (Arrays.stream(input).distinct().count() == input.length) {
+                assertEquals(classicStats.getSwaps(HeapSortPhase.SORT), bottomUpStats.getSwaps(HeapSortPhase.SORT));
+            }
+        }
+    }
+
+    @Test
+    void bottomUpSavesComparisonsOnRandomInput() {
+        int[] input = new Random(8).ints(100_000).toArray();
+        SiftDownComparison comparison = SiftDownComparison.run(input, HeapBuildStrategy.FLOYD, 2, 0);
+        assertTrue(comparison.comparisonRatio() < 0.6, "ratio " + comparison.comparisonRatio());
+    }
+
+    @Test
+    void bottomUpStepEventsReplayToTheSortedInput() {
+        int[] input = new Random(4).ints(1_000, 0, 100).toArray();
+        OperationLog log = new OperationLog();
+        HeapSortEngine engine = engine(HeapBuildStrategy.FLOYD, 4, 0, SiftDownStrategy.BOTTOM_UP);
+        engine.setListener(log);
+        int[] sorted = engine.sort(input);
+
+        TraceCursor cursor = new TraceCursor(log, input);
+        cursor.seek(log.size());
+        int[] expected = input.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, sorted);
+        assertArrayEquals(expected, cursor.heap());
+    }
+
+    private static int[][] inputs() {
+        Random random = new Random(6);
+        int[] ascending = new int[1_000];
+        Arrays.setAll(ascending, i -> i);
+        int[] descending = new int[1_000];
+        Arrays.setAll(descending, i -> -i);
+        return new int[][] {
+            new int[0],
+            {1},
+            {2, 1},
+            random.ints(5_000).toArray(),
+            random.ints(5_000, 0, 8).toArray(), // many duplicates
+            ascending,
+            descending
+        };
+    }
+
+    private static HeapSortEngine engine(HeapBuildStrategy buildStrategy, int arity, int topK,
+                                         SiftDownStrategy siftDownStrategy) {
+        HeapSortEngine engine = new HeapSortEngine();
+        engine.setBuildStrategy(buildStrategy);
+        engine.setArity(arity);
+        engine.setTopK(topK);
+        engine.setSiftDownStrategy(siftDownStrategy);
+        return engine;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class StreamingTopKTest {
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 10, 1_000, 100_000})
+    void keepsTheLargestValues(int k) {
+        int[] values = new Random(k).ints(100_000, -1_000, 1_000).toArray();
+        StreamingTopK top = new StreamingTopK(k);
+        Arrays.stream(values).forEach(top);
+
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(Arrays.copyOfRange(sorted, sorted.length - k, sorted.length), top.toSortedArray());
+        assertEquals(sorted[sorted.length - k], top.min());
+        assertEquals(values.length, top.count());
+    }
+
+    @Test
+    void keepsEverythingWhileBelowCapacity() {
+        StreamingTopK top = new StreamingTopK(10);
+        for (int value : new int[] {5, -3, 9}) {
+            top.offer(value);
+        }
+        assertEquals(3, top.size());
+        assertArrayEquals(new int[] {-3, 5, 9}, top.toSortedArray());
+
+        int[] heap = new int[10];
+        assertEquals(3, top.copyHeapTo(heap));
+        assertEquals(-3, heap[0]);
+    }
+
+    @Test
+    void agreesWithTheEngineTopKMode() {
+        int[] values = new Random(3).ints(50_000).toArray();
+        StreamingTopK top = new StreamingTopK(250);
+        Arrays.stream(values).forEach(top);
+        assertArrayEquals(new HeapSortEngine().selectTop(values, 250), top.toSortedArray());
+        // 0 would mean a full sort to the engine, not an empty selection
+        assertThrows(IllegalArgumentException.class, () -> new HeapSortEngine().selectTop(values, 0));
+    }
+
+    @Test
+    void clearStartsOver() {
+        StreamingTopK top = new StreamingTopK(2);
+        top.offer(1);
+        top.offer(2);
+        top.clear();
+        assertEquals(0, top.size());
+        assertEquals(0, top.count());
+        assertThrows(NoSuchElementException.class, top::min);
+        top.offer(7);
+        assertEquals(7, top.min());
+    }
+
+    @Test
+    void rejectsANonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new StreamingTopK(0));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class TraceCursorTest {
+    @ParameterizedTest
+    @CsvSource({"INSERTION, 2", "FLOYD, 2", "INSERTION, 4", "FLOYD, 8"})
+    void replayingTheStepEventsSortsTheInput(HeapBuildStrategy buildStrategy, int arity) {
+        int[] input = new Random(11).ints(2_000, -500, 500).toArray();
+        OperationLog log = record(input, buildStrategy, arity);
+        int[] expected = input.clone();
+        Arrays.sort(expected);
+
+        TraceCursor cursor = new TraceCursor(log, input);
+        cursor.seek(log.size());
+        assertArrayEquals(expected, cursor.heap());
+        assertEquals(input.length, cursor.sortedCount());
+
+        // The heap is complete at the Max Heap step: every parent is at least as large as its children
+        cursor.seek(log.heapBuiltStep());
+        HeapShape shape = new HeapShape(arity);
+        assertEquals(input.length, cursor.heapSize());
+        for (int i = 1; i < cursor.heapSize(); i++) {
+            assertTrue(cursor.heap()[shape.parent(i)] >= cursor.heap()[i], "heap order at " + i);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"INSERTION, 2", "FLOYD, 4"})
+    void seeksMatchASequentialReplay(HeapBuildStrategy buildStrategy, int arity) {
+        int[] input = new Random(5).ints(300).toArray();
+        OperationLog log = record(input, buildStrategy, arity);
+        // Sequential reference state of every step
+        int[][] heaps = new int[log.size() + 1][];
+        TraceCursor reference = new TraceCursor(log, input);
+        TraceCheckpoints checkpoints = new TraceCheckpoints(input.length, 64 * 1024);
+        for (int step = 0; step <= log.size(); step++) {
+            reference.seek(step);
+            heaps[step] = Arrays.copyOf(reference.heap(), reference.heapSize());
+            if (step % 101 == 0) {
+                checkpoints.add(step, reference.heap().clone(), reference.heapSize(), reference.sortedCount());
+            }
+        }
+
+        TraceCursor cursor = new TraceCursor(log, input, checkpoints);
+        int[] shown = new int[input.length];
+        Random random = new Random(9);
+        int step = 0;
+        for (int i = 0; i < 5_000; i++) {
+            // Mostly single steps in either direction, with occasional jumps
+            step = random.nextInt(8) > 0
+                ? Math.max(0, Math.min(log.size(), step + (random.nextBoolean() ? 1 : -1)))
+                : random.nextInt(log.size() + 1);
+            cursor.seek(step);
+            assertArrayEquals(heaps[step], Arrays.copyOf(cursor.heap(), cursor.heapSize()), "step " + step);
+
+            // Applying only the reported changes keeps a copy of the heap in sync
+            int[] heap = cursor.heap();
+            if (!cursor.drainChanges(index -> shown[index] = heap[index])) {
+                System.arraycopy(heap, 0, shown, 0, heap.length);
+            }
+            assertArrayEquals(heaps[step], Arrays.copyOf(shown, cursor.heapSize()), "changes at step " + step);
+        }
+    }
+
+    private static OperationLog record(int[] input, HeapBuildStrategy buildStrategy, int arity) {
+        OperationLog log = new OperationLog();
+        HeapSortEngine engine = new HeapSortEngine();
+        engine.setListener(log);
+        engine.setBuildStrategy(buildStrategy);
+        engine.setArity(arity);
+        engine.sort(input);
+        return log;
+    }
+}